@@ -1,5 +1,6 @@
 plugins {
     id ("com.github.minecraftschurlimods.helperplugin")
+    id ("me.champeau.jmh")
 }
 
 dependencies {
@@ -7,6 +8,19 @@ dependencies {
     compileOnly("org.jetbrains:annotations:23.0.0")
 }
 
+// run with ./gradlew jmh, add --offline once the dependencies are cached, -Pjmh.includes=<regex> to select benchmarks and -Pjmh.entries=<sizes> to select dataset sizes
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt", "sample"))
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.set(listOf(it)) }
+    providers.gradleProperty("jmh.entries").orNull?.let { benchmarkParameters.put("entries", objects.listProperty<String>().value(it.split(","))) }
+}
+
 helper.publication.pom {
     organization {
         name = "Minecraftschurli Mods"
@@ -3,6 +3,7 @@ pluginManagement {
         id("org.ec4j.editorconfig") version "0.0.3"
         id("net.neoforged.gradle.userdev") version "7.0.80"
         id("com.github.minecraftschurlimods.helperplugin") version "1.6"
+        id("me.champeau.jmh") version "0.7.2"
     }
     repositories {
         mavenLocal()
@@ -0,0 +1,186 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.Lifecycle;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.core.Holder;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.RegistryFixedCodec;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.ExtraCodecs;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic datasets shared by the benchmarks.
+ */
+final class BenchmarkData {
+    static final String NAMESPACE = "codeclib_benchmark";
+    static final String FOLDER = "samples";
+    private static final int TAGS_PER_SAMPLE = 8;
+    private static final int DISTINCT_TAGS = 64;
+    static final ResourceKey<Registry<String>> TAG_REGISTRY = ResourceKey.createRegistryKey(new ResourceLocation(NAMESPACE, "tag"));
+
+    private BenchmarkData() {}
+
+    /**
+     * A data entry of moderate size, with a nested list to give the codecs some work.
+     */
+    record Sample(String name, int weight, Rarity rarity, List<String> tags) {
+        static final Codec<Sample> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+                Codec.STRING.fieldOf("name").forGetter(Sample::name),
+                Codec.INT.fieldOf("weight").forGetter(Sample::weight),
+                CodecHelper.forStringEnum(Rarity.class).fieldOf("rarity").forGetter(Sample::rarity),
+                Codec.STRING.listOf().fieldOf("tags").forGetter(Sample::tags)
+        ).apply(instance, Sample::new));
+        // resolves every tag through the registry ops, like codecs referencing registry entries do; only used for decoding
+        static final Codec<Sample> REGISTRY_CODEC = RecordCodecBuilder.create(instance -> instance.group(
+                Codec.STRING.fieldOf("name").forGetter(Sample::name),
+                Codec.INT.fieldOf("weight").forGetter(Sample::weight),
+                CodecHelper.forStringEnum(Rarity.class).fieldOf("rarity").forGetter(Sample::rarity),
+                RegistryFixedCodec.create(TAG_REGISTRY).listOf()
+                        .<List<String>>xmap(holders -> holders.stream().map(Holder::value).toList(), tags -> tags.stream().map(Holder::direct).toList())
+                        .fieldOf("tags").forGetter(Sample::tags)
+        ).apply(instance, Sample::new));
+        static final BufferCodec<Sample> BUFFER_CODEC = new BufferCodec<>((buf, sample) -> {
+            buf.writeUtf(sample.name());
+            buf.writeVarInt(sample.weight());
+            buf.writeEnum(sample.rarity());
+            buf.writeCollection(sample.tags(), (b, tag) -> b.writeUtf(tag));
+        }, buf -> new Sample(buf.readUtf(), buf.readVarInt(), buf.readEnum(Rarity.class), buf.readList(b -> b.readUtf())));
+    }
+
+    /**
+     * @return A codec decoding every sample with new registry ops, as data managers did before the ops were shared per registry access.
+     */
+    static Codec<Sample> uncachedRegistryCodec(RegistryAccess registryAccess) {
+        return ExtraCodecs.JSON.flatXmap(
+                json -> Sample.REGISTRY_CODEC.parse(RegistryOps.create(JsonOps.INSTANCE, registryAccess), json),
+                sample -> DataResult.error(() -> "Only decoding is benchmarked"));
+    }
+
+    enum Rarity {
+        COMMON, UNCOMMON, RARE, EPIC
+    }
+
+    static ResourceLocation id(int i) {
+        return new ResourceLocation(NAMESPACE, "sample_" + i);
+    }
+
+    static Sample sample(int i) {
+        List<String> tags = new ArrayList<>(TAGS_PER_SAMPLE);
+        for (int tag = 0; tag < TAGS_PER_SAMPLE; tag++) {
+            tags.add("tag_" + (i + tag) % DISTINCT_TAGS); // repeated across entries, like real tag references
+        }
+        return new Sample("sample_" + i, i % 100, Rarity.values()[i % Rarity.values().length], List.copyOf(tags));
+    }
+
+    /**
+     * @return A registry access containing the registry of all tags referenced by the samples.
+     */
+    static RegistryAccess registryAccess() {
+        MappedRegistry<String> registry = new MappedRegistry<>(TAG_REGISTRY, Lifecycle.stable());
+        for (int i = 0; i < DISTINCT_TAGS; i++) {
+            Registry.register(registry, new ResourceLocation("tag_" + i), "tag_" + i); // the samples reference the tags without namespace
+        }
+        registry.freeze();
+        return new RegistryAccess.ImmutableRegistryAccess(List.of(registry)).freeze();
+    }
+
+    static Map<ResourceLocation, Sample> samples(int count) {
+        Map<ResourceLocation, Sample> samples = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            samples.put(id(i), sample(i));
+        }
+        return samples;
+    }
+
+    static JsonObject json(int i) {
+        Sample sample = sample(i);
+        JsonObject json = new JsonObject();
+        json.addProperty("name", sample.name());
+        json.addProperty("weight", sample.weight());
+        json.addProperty("rarity", sample.rarity().name());
+        JsonArray tags = new JsonArray();
+        sample.tags().forEach(tags::add);
+        json.add("tags", tags);
+        return json;
+    }
+
+    /**
+     * @return A resource manager containing {@code count} sample data files for a data manager with the id {@code codeclib_benchmark:samples}.
+     */
+    static ResourceManager resourceManager(int count) {
+        Map<ResourceLocation, byte[]> files = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            files.put(new ResourceLocation(NAMESPACE, FOLDER + "/sample_" + i + ".json"), json(i).toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return new InMemoryResourceManager(files);
+    }
+
+    private record InMemoryResourceManager(Map<ResourceLocation, byte[]> files) implements ResourceManager {
+        @Override
+        public Set<String> getNamespaces() {
+            return Set.of(NAMESPACE);
+        }
+
+        @Override
+        public Optional<Resource> getResource(ResourceLocation location) {
+            return Optional.ofNullable(this.files.get(location)).map(InMemoryResourceManager::resource);
+        }
+
+        @Override
+        public List<Resource> getResourceStack(ResourceLocation location) {
+            return getResource(location).stream().toList();
+        }
+
+        @Override
+        public Map<ResourceLocation, Resource> listResources(String path, Predicate<ResourceLocation> filter) {
+            Map<ResourceLocation, Resource> resources = new LinkedHashMap<>();
+            this.files.forEach((location, bytes) -> {
+                if (location.getPath().startsWith(path + "/") && filter.test(location)) {
+                    resources.put(location, resource(bytes));
+                }
+            });
+            return resources;
+        }
+
+        @Override
+        public Map<ResourceLocation, List<Resource>> listResourceStacks(String path, Predicate<ResourceLocation> filter) {
+            Map<ResourceLocation, List<Resource>> stacks = new LinkedHashMap<>();
+            listResources(path, filter).forEach((location, resource) -> stacks.put(location, List.of(resource)));
+            return stacks;
+        }
+
+        @Override
+        public Stream<PackResources> listPacks() {
+            return Stream.empty();
+        }
+
+        @SuppressWarnings("DataFlowIssue")
+        private static Resource resource(byte[] bytes) {
+            return new Resource(null, () -> new ByteArrayInputStream(bytes)); // the pack is only used for logging
+        }
+    }
+}
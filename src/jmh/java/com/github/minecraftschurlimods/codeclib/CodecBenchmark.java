@@ -0,0 +1,75 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decodes the collection codecs of {@link CodecHelper} and the set codec they replaced, see {@link SingleValueCodecBenchmark} for the codecs of single values.
+ */
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+    private static final Codec<Set<String>> STRING_SET = CodecHelper.setOf(Codec.STRING);
+    private static final Codec<Set<Integer>> BOXED_INT_SET = CodecHelper.setOf(Codec.INT);
+    private static final Codec<Set<String>> LEGACY_STRING_SET = new LegacySetCodec<>(Codec.STRING);
+    private static final Codec<Set<Integer>> LEGACY_BOXED_INT_SET = new LegacySetCodec<>(Codec.INT);
+    private static final Codec<List<String>> STRING_LIST = Codec.STRING.listOf();
+    @Param({"100", "1000", "10000", "100000"})
+    public int entries;
+    private JsonElement strings;
+    private JsonElement ints;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        JsonArray strings = new JsonArray();
+        JsonArray ints = new JsonArray();
+        for (int i = 0; i < this.entries; i++) {
+            strings.add("value_" + i);
+            ints.add(i);
+        }
+        this.strings = strings;
+        this.ints = ints;
+    }
+
+    @Benchmark
+    public DataResult<?> stringSet() {
+        return STRING_SET.parse(JsonOps.INSTANCE, this.strings);
+    }
+
+    @Benchmark
+    public DataResult<?> legacyStringSet() {
+        return LEGACY_STRING_SET.parse(JsonOps.INSTANCE, this.strings);
+    }
+
+    @Benchmark
+    public DataResult<?> stringList() {
+        return STRING_LIST.parse(JsonOps.INSTANCE, this.strings);
+    }
+
+    @Benchmark
+    public DataResult<?> boxedIntSet() {
+        return BOXED_INT_SET.parse(JsonOps.INSTANCE, this.ints);
+    }
+
+    @Benchmark
+    public DataResult<?> legacyBoxedIntSet() {
+        return LEGACY_BOXED_INT_SET.parse(JsonOps.INSTANCE, this.ints);
+    }
+
+    @Benchmark
+    public DataResult<IntSet> intSet() {
+        return CodecHelper.intSet().parse(JsonOps.INSTANCE, this.ints);
+    }
+}
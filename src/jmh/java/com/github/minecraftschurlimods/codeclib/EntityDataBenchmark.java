@@ -0,0 +1,119 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.mojang.serialization.Codec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * Writes, copies and compares a single entity data value with the different {@link CodecEntityDataSerializer} variants.<br>
+ * {@link net.minecraft.network.syncher.SynchedEntityData} needs a bootstrapped entity and a registered serializer, so the set benchmarks reproduce the work
+ * a redundant update causes instead: a plain set marks the value dirty, which copies and writes it on the next sync, while setIfChanged compares the encoded values.
+ */
+@State(Scope.Benchmark)
+public class EntityDataBenchmark {
+    private final BenchmarkData.Sample sample = BenchmarkData.sample(0);
+    // equal only in encoded form, so comparisons cannot return early on equals
+    private final Opaque opaque = new Opaque(this.sample);
+    private final Opaque encodedEqualOpaque = new Opaque(new BenchmarkData.Sample(this.sample.name(), this.sample.weight(), this.sample.rarity(), List.copyOf(this.sample.tags())));
+    private CodecEntityDataSerializer<BenchmarkData.Sample> nbtSerializer;
+    private CodecEntityDataSerializer<BenchmarkData.Sample> bufferSerializer;
+    private CodecEntityDataSerializer<BenchmarkData.Sample> autoCopySerializer;
+    private CodecEntityDataSerializer<BenchmarkData.Sample> identityCopySerializer;
+    private CodecEntityDataSerializer<Opaque> opaqueNbtSerializer;
+    private CodecEntityDataSerializer<Opaque> opaqueBufferSerializer;
+    private FriendlyByteBuf buf;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.nbtSerializer = new CodecEntityDataSerializer<>(BenchmarkData.Sample.CODEC);
+        this.bufferSerializer = this.nbtSerializer.withBufferCodec(BenchmarkData.Sample.BUFFER_CODEC);
+        this.autoCopySerializer = this.nbtSerializer.withAutoCopy();
+        this.identityCopySerializer = this.nbtSerializer.withIdentityCopy();
+        this.opaqueNbtSerializer = new CodecEntityDataSerializer<>(Opaque.CODEC);
+        this.opaqueBufferSerializer = this.opaqueNbtSerializer.withBufferCodec(Opaque.BUFFER_CODEC);
+        this.buf = new FriendlyByteBuf(Unpooled.buffer());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.buf.release();
+    }
+
+    private FriendlyByteBuf clearedBuffer() {
+        this.buf.clear();
+        return this.buf;
+    }
+
+    @Benchmark
+    public ByteBuf writeNbtEntityData() {
+        FriendlyByteBuf buf = clearedBuffer();
+        this.nbtSerializer.write(buf, this.sample);
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuf writeBufferEntityData() {
+        FriendlyByteBuf buf = clearedBuffer();
+        this.bufferSerializer.write(buf, this.sample);
+        return buf;
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample roundTripCopy() {
+        return this.nbtSerializer.copy(this.sample);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample autoCopy() {
+        return this.autoCopySerializer.copy(this.sample);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample identityCopy() {
+        return this.identityCopySerializer.copy(this.sample);
+    }
+
+    @Benchmark
+    public boolean encodesEqualNbt() {
+        return this.opaqueNbtSerializer.encodesEqual(this.opaque, this.encodedEqualOpaque);
+    }
+
+    @Benchmark
+    public boolean encodesEqualBuffer() {
+        return this.opaqueBufferSerializer.encodesEqual(this.opaque, this.encodedEqualOpaque);
+    }
+
+    @Benchmark
+    public ByteBuf setRedundant() {
+        FriendlyByteBuf buf = clearedBuffer();
+        this.opaqueBufferSerializer.write(buf, this.opaqueBufferSerializer.copy(this.encodedEqualOpaque));
+        return buf;
+    }
+
+    @Benchmark
+    public boolean setIfChangedRedundant() {
+        return !this.opaqueBufferSerializer.encodesEqual(this.opaque, this.encodedEqualOpaque);
+    }
+
+    /**
+     * An entity data value without a structural equals, like most mutable game objects.
+     */
+    private static final class Opaque {
+        private static final Codec<Opaque> CODEC = BenchmarkData.Sample.CODEC.xmap(Opaque::new, opaque -> opaque.sample);
+        private static final BufferCodec<Opaque> BUFFER_CODEC = new BufferCodec<>((buf, opaque) -> BenchmarkData.Sample.BUFFER_CODEC.write(buf, opaque.sample), buf -> new Opaque(BenchmarkData.Sample.BUFFER_CODEC.read(buf)));
+        private final BenchmarkData.Sample sample;
+
+        private Opaque(BenchmarkData.Sample sample) {
+            this.sample = sample;
+        }
+    }
+}
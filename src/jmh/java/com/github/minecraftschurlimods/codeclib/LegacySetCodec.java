@@ -0,0 +1,55 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.common.collect.ImmutableSet;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.Unit;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.Lifecycle;
+import com.mojang.serialization.ListBuilder;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * The set codec {@link CodecHelper#setOf(Codec)} returned before it decoded sets in a single pass, kept unchanged as the baseline of {@link CodecBenchmark}.
+ */
+record LegacySetCodec<T>(Codec<T> elementCodec) implements Codec<Set<T>> {
+
+    @Override
+    public <T1> DataResult<Pair<Set<T>, T1>> decode(DynamicOps<T1> ops, T1 input) {
+        return ops.getList(input).setLifecycle(Lifecycle.stable()).flatMap(stream -> {
+            final ImmutableSet.Builder<T> read = ImmutableSet.builder();
+            final Stream.Builder<T1> failed = Stream.builder();
+            final AtomicReference<DataResult<Unit>> result = new AtomicReference<>(DataResult.success(Unit.INSTANCE, Lifecycle.stable()));
+
+            stream.accept(t -> {
+                final DataResult<Pair<T, T1>> element = elementCodec.decode(ops, t);
+                element.error().ifPresent(e -> failed.add(t));
+                result.set(result.get().apply2stable((r, v) -> {
+                    read.add(v.getFirst());
+                    return r;
+                }, element));
+            });
+
+            final Pair<Set<T>, T1> pair = Pair.of(read.build(), ops.createList(failed.build()));
+            return result.get().map(unit -> pair).setPartial(pair);
+        });
+    }
+
+    @Override
+    public <T1> DataResult<T1> encode(Set<T> input, DynamicOps<T1> ops, T1 prefix) {
+        ListBuilder<T1> builder = ops.listBuilder();
+        for (T element : input) {
+            builder.add(elementCodec.encodeStart(ops, element));
+        }
+        return builder.build(prefix);
+    }
+
+    @Override
+    public String toString() {
+        return "LegacySetCodec[" + elementCodec + ']';
+    }
+}
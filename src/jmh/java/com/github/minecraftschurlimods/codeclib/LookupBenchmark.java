@@ -0,0 +1,110 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.profiling.InactiveProfiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Looks up entries of loaded data, by id, by string id and by integer id.
+ */
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+    private static final int KEYS = 1024;
+    @Param({"100", "1000", "10000", "100000"})
+    public int entries;
+    private Map<ResourceLocation, BenchmarkData.Sample> hashMap;
+    private Map<ResourceLocation, BenchmarkData.Sample> immutableMap;
+    private FrozenIndex<BenchmarkData.Sample> frozenIndex;
+    private CodecDataManager<BenchmarkData.Sample> manager;
+    private CodecDataManager<BenchmarkData.Sample> indexedManager;
+    private ResourceLocation[] keys;
+    private String[] stringKeys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<ResourceLocation, BenchmarkData.Sample> samples = BenchmarkData.samples(this.entries);
+        this.hashMap = new HashMap<>(samples);
+        this.immutableMap = Map.copyOf(samples);
+        this.frozenIndex = FrozenIndex.copyOf(samples);
+        this.manager = manager(new CodecDataManager<>(BenchmarkData.NAMESPACE, "lookup", BenchmarkData.Sample.CODEC), samples);
+        this.indexedManager = manager(new CodecDataManager<>(BenchmarkData.NAMESPACE, "indexed_lookup", BenchmarkData.Sample.CODEC).useFrozenIndex(), samples);
+        this.keys = new ResourceLocation[KEYS];
+        this.stringKeys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            // fresh instances, so lookups cannot short-circuit on identity
+            ResourceLocation key = BenchmarkData.id(i * 31 % this.entries);
+            this.keys[i] = new ResourceLocation(key.getNamespace(), key.getPath());
+            this.stringKeys[i] = key.toString();
+        }
+    }
+
+    private static CodecDataManager<BenchmarkData.Sample> manager(CodecDataManager<BenchmarkData.Sample> manager, Map<ResourceLocation, BenchmarkData.Sample> samples) {
+        manager.publish(manager.load(BenchmarkData.resourceManager(0), InactiveProfiler.INSTANCE), InactiveProfiler.INSTANCE);
+        manager.receiveSyncedData(samples);
+        return manager;
+    }
+
+    private int nextKey() {
+        return this.next = (this.next + 1) & (KEYS - 1);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample hashMap() {
+        return this.hashMap.get(this.keys[nextKey()]);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample immutableMap() {
+        return this.immutableMap.get(this.keys[nextKey()]);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample frozenIndex() {
+        return this.frozenIndex.get(this.keys[nextKey()]);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample frozenIndexById() {
+        return this.frozenIndex.getById(nextKey() % this.entries);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample managerByResourceLocation() {
+        return this.manager.get(this.keys[nextKey()]);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample indexedManagerByResourceLocation() {
+        return this.indexedManager.get(this.keys[nextKey()]);
+    }
+
+    @Benchmark
+    public int indexedManagerIdOf() {
+        return this.indexedManager.idOf(this.keys[nextKey()]);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample indexedManagerById() {
+        return this.indexedManager.getById(nextKey() % this.entries);
+    }
+
+    @Benchmark
+    public BenchmarkData.Sample managerByString() {
+        return this.manager.getByString(this.stringKeys[nextKey()]);
+    }
+
+    // the lookup by string without the string index, as callers did before
+    @Benchmark
+    public BenchmarkData.Sample managerByParsedString() {
+        return this.manager.get(new ResourceLocation(this.stringKeys[nextKey()]));
+    }
+}
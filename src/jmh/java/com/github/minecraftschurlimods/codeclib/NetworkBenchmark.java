@@ -0,0 +1,138 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.mojang.serialization.Codec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+
+/**
+ * Encodes and decodes sync packets, as nbt and with buffer codecs, see {@link EntityDataBenchmark} for entity data.
+ */
+@State(Scope.Benchmark)
+public class NetworkBenchmark {
+    private static final Codec<Map<ResourceLocation, BenchmarkData.Sample>> MAP_CODEC = Codec.unboundedMap(ResourceLocation.CODEC, BenchmarkData.Sample.CODEC);
+    private static final BufferCodec<Map<ResourceLocation, BenchmarkData.Sample>> MAP_BUFFER_CODEC = BufferCodec.mapOf(BufferCodec.RESOURCE_LOCATION, BenchmarkData.Sample.BUFFER_CODEC);
+    @Param({"100", "1000", "10000", "100000"})
+    public int entries;
+    private Map<ResourceLocation, BenchmarkData.Sample> samples;
+    private byte[] nbtPacket;
+    private byte[] bufferPacket;
+    private FriendlyByteBuf buf;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.samples = BenchmarkData.samples(this.entries);
+        this.nbtPacket = new NbtPacket(this.samples).encodedBytes();
+        this.bufferPacket = new BufferPacket(this.samples).encodedBytes();
+        this.buf = new FriendlyByteBuf(Unpooled.buffer());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.buf.release();
+    }
+
+    private FriendlyByteBuf clearedBuffer() {
+        this.buf.clear();
+        return this.buf;
+    }
+
+    private FriendlyByteBuf wrap(byte[] bytes) {
+        return new FriendlyByteBuf(Unpooled.wrappedBuffer(bytes));
+    }
+
+    @Benchmark
+    public ByteBuf encodeNbtPacket(PacketSize size) {
+        FriendlyByteBuf buf = clearedBuffer();
+        new NbtPacket(this.samples).write(buf);
+        size.packetBytes = buf.readableBytes();
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuf encodeBufferPacket(PacketSize size) {
+        FriendlyByteBuf buf = clearedBuffer();
+        new BufferPacket(this.samples).write(buf);
+        size.packetBytes = buf.readableBytes();
+        return buf;
+    }
+
+    @Benchmark
+    public Object decodeNbtPacket() {
+        return new NbtPacket(wrap(this.nbtPacket)).data;
+    }
+
+    @Benchmark
+    public Object decodeBufferPacket() {
+        return new BufferPacket(wrap(this.bufferPacket)).data;
+    }
+
+    /**
+     * Reports the size of the encoded packet as a secondary result of the encode benchmarks, as the payload size matters as much as the encoding time.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PacketSize {
+        public long packetBytes;
+    }
+
+    private static final ResourceLocation PACKET_ID = new ResourceLocation(BenchmarkData.NAMESPACE, "packet");
+
+    private static final class NbtPacket extends CodecPacket<Map<ResourceLocation, BenchmarkData.Sample>> {
+        NbtPacket(Map<ResourceLocation, BenchmarkData.Sample> data) {
+            super(data);
+        }
+
+        NbtPacket(FriendlyByteBuf buf) {
+            super(buf);
+        }
+
+        @Override
+        protected Codec<Map<ResourceLocation, BenchmarkData.Sample>> codec() {
+            return MAP_CODEC;
+        }
+
+        @Override
+        public ResourceLocation id() {
+            return PACKET_ID;
+        }
+    }
+
+    private static final class BufferPacket extends CodecPacket<Map<ResourceLocation, BenchmarkData.Sample>> {
+        BufferPacket(Map<ResourceLocation, BenchmarkData.Sample> data) {
+            super(data);
+        }
+
+        BufferPacket(FriendlyByteBuf buf) {
+            super(buf);
+        }
+
+        @Override
+        protected Codec<Map<ResourceLocation, BenchmarkData.Sample>> codec() {
+            return MAP_CODEC;
+        }
+
+        @Nullable
+        @Override
+        protected BufferCodec<Map<ResourceLocation, BenchmarkData.Sample>> bufferCodec() {
+            return MAP_BUFFER_CODEC;
+        }
+
+        @Override
+        public ResourceLocation id() {
+            return PACKET_ID;
+        }
+    }
+}
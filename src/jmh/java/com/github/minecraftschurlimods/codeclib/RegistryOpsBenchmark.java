@@ -0,0 +1,29 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.RegistryOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decodes an entry referencing registry entries with registry ops obtained per use, as done before they were cached per registry access.
+ */
+@State(Scope.Benchmark)
+public class RegistryOpsBenchmark {
+    private final RegistryAccess registryAccess = BenchmarkData.registryAccess();
+    private final JsonElement sample = BenchmarkData.json(0);
+
+    @Benchmark
+    public DataResult<BenchmarkData.Sample> create() {
+        return BenchmarkData.Sample.REGISTRY_CODEC.parse(RegistryOps.create(JsonOps.INSTANCE, this.registryAccess), this.sample);
+    }
+
+    @Benchmark
+    public DataResult<BenchmarkData.Sample> cached() {
+        return BenchmarkData.Sample.REGISTRY_CODEC.parse(RegistryOpsCache.json(this.registryAccess), this.sample);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.mojang.serialization.Codec;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.profiling.InactiveProfiler;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Loads a data manager from a synthetic resource manager, the way a resource reload does.
+ */
+@State(Scope.Benchmark)
+public class ReloadBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int entries;
+    @Param({"eager", "parallel", "streaming", "lazy", "incremental", "registry_ops", "registry_ops_uncached"})
+    public String mode;
+    private ResourceManager resourceManager;
+    private CodecDataManager<BenchmarkData.Sample> manager;
+    @Nullable
+    private RegistryAccess registryAccess;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.resourceManager = BenchmarkData.resourceManager(this.entries);
+        boolean registryOps = this.mode.equals("registry_ops");
+        RegistryAccess registryAccess = BenchmarkData.registryAccess();
+        Codec<BenchmarkData.Sample> codec = switch (this.mode) {
+            case "registry_ops" -> BenchmarkData.Sample.REGISTRY_CODEC;
+            // the baseline of registry_ops, creating the registry ops for every entry instead of using the shared ones
+            case "registry_ops_uncached" -> BenchmarkData.uncachedRegistryCodec(registryAccess);
+            default -> BenchmarkData.Sample.CODEC;
+        };
+        this.manager = new CodecDataManager<>(BenchmarkData.NAMESPACE, BenchmarkData.FOLDER, codec);
+        switch (this.mode) {
+            case "parallel" -> this.manager.parallelDecoding();
+            case "streaming" -> this.manager.streamingDecoding();
+            case "lazy" -> this.manager.lazyDecoding();
+            case "incremental" -> this.manager.incrementalReload();
+            case "registry_ops" -> this.manager.useRegistryOps();
+            default -> {}
+        }
+        // there is no server to take the registry access from, so it is passed to the load directly
+        this.registryAccess = registryOps ? registryAccess : null;
+        // the first load fills the fingerprints, so incremental reloads measure the unchanged case
+        reload();
+    }
+
+    @Benchmark
+    public Map<?, ?> reload() {
+        this.manager.publish(this.manager.load(this.resourceManager, InactiveProfiler.INSTANCE, this.registryAccess), InactiveProfiler.INSTANCE);
+        return this.manager.snapshot();
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decodes the enum codecs of {@link CodecHelper}, and a single entry through the data manager codec.
+ */
+@State(Scope.Benchmark)
+public class SingleValueCodecBenchmark {
+    private static final Codec<BenchmarkData.Rarity> STRING_ENUM = CodecHelper.forStringEnum(BenchmarkData.Rarity.class);
+    private static final Codec<BenchmarkData.Rarity> STRING_ENUM_IGNORE_CASE = CodecHelper.forStringEnumIgnoreCase(BenchmarkData.Rarity.class);
+    private final JsonElement rarity = new JsonPrimitive("RARE");
+    private final JsonElement lowerCaseRarity = new JsonPrimitive("rare");
+    private final JsonElement sample = BenchmarkData.json(0);
+
+    @Benchmark
+    public DataResult<BenchmarkData.Rarity> stringEnum() {
+        return STRING_ENUM.parse(JsonOps.INSTANCE, this.rarity);
+    }
+
+    @Benchmark
+    public DataResult<BenchmarkData.Rarity> stringEnumIgnoreCase() {
+        return STRING_ENUM_IGNORE_CASE.parse(JsonOps.INSTANCE, this.lowerCaseRarity);
+    }
+
+    @Benchmark
+    public DataResult<BenchmarkData.Sample> entry() {
+        return BenchmarkData.Sample.CODEC.parse(JsonOps.INSTANCE, this.sample);
+    }
+}
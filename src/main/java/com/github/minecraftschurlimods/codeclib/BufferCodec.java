@@ -0,0 +1,71 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.mojang.serialization.Codec;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pair of functions writing a value directly to and reading it directly from a {@link FriendlyByteBuf}.<br>
+ * Unlike a {@link Codec} this does not build an intermediate tag tree.
+ *
+ * @param writer the function writing a value to the buffer.
+ * @param reader the function reading a value from the buffer.
+ * @param <T>    the type of the value.
+ */
+public record BufferCodec<T>(FriendlyByteBuf.Writer<T> writer, FriendlyByteBuf.Reader<T> reader) {
+    public static final BufferCodec<Integer> VAR_INT = new BufferCodec<>(FriendlyByteBuf::writeVarInt, FriendlyByteBuf::readVarInt);
+    public static final BufferCodec<String> STRING = new BufferCodec<>(FriendlyByteBuf::writeUtf, FriendlyByteBuf::readUtf);
+    public static final BufferCodec<ResourceLocation> RESOURCE_LOCATION = new BufferCodec<>(FriendlyByteBuf::writeResourceLocation, FriendlyByteBuf::readResourceLocation);
+
+    /**
+     * Create a buffer codec falling back to encoding the value with the given codec as nbt.
+     *
+     * @param codec the codec to use.
+     * @return the buffer codec.
+     */
+    public static <T> BufferCodec<T> fromCodec(Codec<T> codec) {
+        return new BufferCodec<>((buf, value) -> buf.writeWithCodec(NbtOps.INSTANCE, codec, value), buf -> buf.readWithCodecTrusted(NbtOps.INSTANCE, codec));
+    }
+
+    /**
+     * Create a buffer codec for maps.
+     *
+     * @param keyCodec   the buffer codec for the keys.
+     * @param valueCodec the buffer codec for the values.
+     * @return the buffer codec for the map.
+     */
+    public static <K, V> BufferCodec<Map<K, V>> mapOf(BufferCodec<K> keyCodec, BufferCodec<V> valueCodec) {
+        return new BufferCodec<>((buf, map) -> buf.writeMap(map, keyCodec.writer(), valueCodec.writer()), buf -> buf.readMap(keyCodec.reader(), valueCodec.reader()));
+    }
+
+    /**
+     * @return A buffer codec for lists of this buffer codecs type.
+     */
+    public BufferCodec<List<T>> listOf() {
+        return new BufferCodec<>((buf, list) -> buf.writeCollection(list, this.writer), buf -> buf.readList(this.reader));
+    }
+
+    /**
+     * Write the given value to the buffer.
+     *
+     * @param buf   the buffer to write to.
+     * @param value the value to write.
+     */
+    public void write(FriendlyByteBuf buf, T value) {
+        this.writer.accept(buf, value);
+    }
+
+    /**
+     * Read a value from the buffer.
+     *
+     * @param buf the buffer to read from.
+     * @return the read value.
+     */
+    public T read(FriendlyByteBuf buf) {
+        return this.reader.apply(buf);
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Splits an encoded payload into bounded-size chunks and assembles them again on the receiving side.
+ */
+final class ChunkedPayload {
+    private static final int BUFFER_SIZE = 8192;
+
+    private ChunkedPayload() {}
+
+    /**
+     * Split the given payload into chunks of at most {@code chunkSize} bytes.
+     *
+     * @param id         the id of the chunk packets.
+     * @param transferId the id of this transfer, used by the receiver to detect interrupted transfers.
+     * @param type       the type of the payload, handed back to the receiver together with the payload.
+     * @param payload    the encoded payload.
+     * @param chunkSize  the maximum number of payload bytes per chunk.
+     * @param compress   whether to deflate the payload before splitting it.
+     * @return the chunk packets to send in order.
+     */
+    static List<CustomPacketPayload> split(ResourceLocation id, int transferId, byte type, byte[] payload, int chunkSize, boolean compress) {
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = type;
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        if (compress) {
+            bytes = deflate(bytes);
+        }
+        int count = Math.max(1, (bytes.length + chunkSize - 1) / chunkSize);
+        List<CustomPacketPayload> chunks = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            int from = index * chunkSize;
+            byte[] chunk = new byte[Math.min(chunkSize, bytes.length - from)];
+            System.arraycopy(bytes, from, chunk, 0, chunk.length);
+            chunks.add(new Chunk(id, transferId, index, count, compress, chunk));
+        }
+        return chunks;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * A single chunk of a payload.
+     */
+    record Chunk(ResourceLocation id, int transferId, int index, int count, boolean compressed, byte[] bytes) implements CustomPacketPayload {
+        static Chunk read(ResourceLocation id, FriendlyByteBuf buf) {
+            return new Chunk(id, buf.readVarInt(), buf.readVarInt(), buf.readVarInt(), buf.readBoolean(), buf.readByteArray());
+        }
+
+        @Override
+        public void write(FriendlyByteBuf buf) {
+            buf.writeVarInt(this.transferId);
+            buf.writeVarInt(this.index);
+            buf.writeVarInt(this.count);
+            buf.writeBoolean(this.compressed);
+            buf.writeByteArray(this.bytes);
+        }
+    }
+
+    /**
+     * The payload of a completed transfer.
+     *
+     * @param type    the type that was passed to {@link #split(ResourceLocation, int, byte, byte[], int, boolean)}.
+     * @param payload the encoded payload.
+     */
+    record Assembled(byte type, byte[] payload) {}
+
+    /**
+     * Receives the chunks of consecutive transfers, starting over whenever the first chunk of a transfer arrives.<br>
+     * Chunks of the same payload share their transfer id across players and reconnects, so a transfer interrupted by a disconnect
+     * must not keep the receiver waiting for the rest of it.
+     */
+    static final class Receiver {
+        @Nullable
+        private Assembler assembler;
+
+        /**
+         * Accept the next chunk, discarding the current transfer if it failed.
+         *
+         * @param chunk the chunk.
+         * @return the assembled payload if this was the last chunk of its transfer, {@code null} otherwise.
+         */
+        @Nullable
+        synchronized Assembled accept(Chunk chunk) throws DataFormatException {
+            try {
+                if (this.assembler == null || chunk.index() == 0 || this.assembler.transferId() != chunk.transferId()) {
+                    reset();
+                    this.assembler = new Assembler(chunk);
+                }
+                Assembled assembled = this.assembler.accept(chunk);
+                if (assembled != null) {
+                    this.assembler = null;
+                }
+                return assembled;
+            } catch (DataFormatException | IllegalStateException e) {
+                reset();
+                throw e;
+            }
+        }
+
+        /**
+         * Discard the current transfer, e.g. when disconnecting.
+         */
+        synchronized void reset() {
+            if (this.assembler != null) {
+                this.assembler.close();
+                this.assembler = null;
+            }
+        }
+    }
+
+    /**
+     * Collects the chunks of a single transfer, inflating compressed chunks as they arrive.
+     */
+    static final class Assembler {
+        private final int transferId;
+        private final int count;
+        @Nullable
+        private final Inflater inflater;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int next = 0;
+
+        Assembler(Chunk first) {
+            if (first.index() != 0) throw new IllegalStateException("Transfer %d started with chunk %d".formatted(first.transferId(), first.index()));
+            this.transferId = first.transferId();
+            this.count = first.count();
+            this.inflater = first.compressed() ? new Inflater() : null;
+        }
+
+        int transferId() {
+            return this.transferId;
+        }
+
+        /**
+         * Accept the next chunk of this transfer.
+         *
+         * @param chunk the chunk.
+         * @return the assembled payload if this was the last chunk, {@code null} otherwise.
+         */
+        @Nullable
+        Assembled accept(Chunk chunk) throws DataFormatException {
+            if (chunk.index() != this.next) throw new IllegalStateException("Expected chunk %d of transfer %d but got %d".formatted(this.next, this.transferId, chunk.index()));
+            if (this.inflater != null) {
+                this.inflater.setInput(chunk.bytes());
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = this.inflater.inflate(buffer)) > 0) {
+                    this.out.write(buffer, 0, read);
+                }
+            } else {
+                this.out.write(chunk.bytes(), 0, chunk.bytes().length);
+            }
+            if (++this.next < this.count) return null;
+            close();
+            byte[] bytes = this.out.toByteArray();
+            byte[] payload = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, payload, 0, payload.length);
+            return new Assembled(bytes[0], payload);
+        }
+
+        void close() {
+            if (this.inflater != null) {
+                this.inflater.end();
+            }
+        }
+    }
+}
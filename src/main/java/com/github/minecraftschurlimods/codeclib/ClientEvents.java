@@ -0,0 +1,20 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
+import net.neoforged.neoforge.common.NeoForge;
+
+/**
+ * Client only event listeners, kept in their own class so the client event classes are never loaded on a dedicated server.
+ */
+final class ClientEvents {
+    private ClientEvents() {}
+
+    /**
+     * Run the given action whenever the client disconnects from a server.
+     *
+     * @param action the action to run.
+     */
+    static void onLoggingOut(Runnable action) {
+        NeoForge.EVENT_BUS.addListener((ClientPlayerNetworkEvent.LoggingOut event) -> action.run());
+    }
+}
@@ -1,47 +1,169 @@
 package com.github.minecraftschurlimods.codeclib;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CountingInputStream;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import net.minecraft.Util;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
-import net.minecraft.resources.RegistryOps;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.FileToIdConverter;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.packs.resources.Resource;
 import net.minecraft.server.packs.resources.ResourceManager;
-import net.minecraft.server.packs.resources.SimpleJsonResourceReloadListener;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.GsonHelper;
 import net.minecraft.util.profiling.ProfilerFiller;
+import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.OnDatapackSyncEvent;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.network.handling.IReplyHandler;
+import net.neoforged.neoforge.network.handling.PlayPayloadContext;
 import net.neoforged.neoforge.network.registration.IPayloadRegistrar;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
 
 @SuppressWarnings("unused")
-public class CodecDataManager<T> extends SimpleJsonResourceReloadListener implements IDataManager<T> {
+public class CodecDataManager<T> extends SimplePreparableReloadListener<CodecDataManager.PreparedData<T>> implements IDataManager<T> {
     private static final BiMap<ResourceLocation, CodecDataManager<?>> DATA_MANAGER = HashBiMap.create();
     private static final Gson GSON = new Gson();
+    private static final int MIN_ENTRIES_PER_DECODE_TASK = 64;
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+    private static final int DEFAULT_SYNC_CHUNK_SIZE = 1 << 19;
+    private static final int MAX_SYNC_CHUNK_SIZE = (1 << 20) - 64; // leave room for the chunk header within the custom payload limit
+    private static final int PARSED_KEY_CACHE_SIZE = 1024;
+    private static final byte SYNC_PAYLOAD = 0;
+    private static final byte DELTA_PAYLOAD = 1;
+    private static final int SLOWEST_ENTRIES = 5;
+    private static boolean metricsCommandRegistered = false;
     private final Codec<T> elementCodec;
+    private final Codec<T> elementNetworkCodec;
     private final Codec<Map<ResourceLocation, T>> networkCodec;
+    private final Codec<Delta<T>> deltaCodec;
+    @Nullable
+    private BufferCodec<T> elementBufferCodec;
+    @Nullable
+    private BufferCodec<Map<ResourceLocation, T>> networkBufferCodec;
+    @Nullable
+    private BufferCodec<Delta<T>> deltaBufferCodec;
     private final Validator<Map<ResourceLocation, T>> validator;
+    @Nullable
+    private EntryValidator<T> entryValidator;
     private final ResourceLocation id;
+    private final ResourceLocation deltaId;
+    private final ResourceLocation ackId;
+    private final ResourceLocation chunkId;
+    private final FileToIdConverter fileToIdConverter;
+    private final Map<UUID, Integer> acknowledgedVersions = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> resentVersions = new ConcurrentHashMap<>();
+    private final Cache<String, ResourceLocation> parsedKeys = CacheBuilder.newBuilder().maximumSize(PARSED_KEY_CACHE_SIZE).build();
+    @Nullable
+    private volatile Map<ResourceLocation, T> data = Map.of();
     @Nullable
-    private Map<ResourceLocation, T> data = new HashMap<>();
+    private volatile StringIndex<T> stringIndex;
     private boolean useRegistryOps = false;
     private boolean isSyncable = false;
+    private int decodeParallelism = 1;
+    private boolean validateInBackground = false;
+    private boolean incrementalReload = false;
+    private boolean useFrozenIndex = false;
+    private boolean coordinatedReload = false;
+    private boolean lazyDecoding = false;
+    private boolean streamingDecoding = false;
+    private long maxLazilyDecoded = 0;
+    @Nullable
+    private ValueInterner interner;
+    private final Set<ResourceLocation> dependencies = new LinkedHashSet<>();
+    private ReloadStats lastReloadStats = ReloadStats.EMPTY;
+    private volatile List<Validator.Problem> validationProblems = List.of();
+    private volatile DataManagerMetrics metrics = DataManagerMetrics.EMPTY;
+    private Map<ResourceLocation, Fingerprinted<T>> fingerprintedEntries = Map.of();
+    @Nullable
+    private RegistryAccess fingerprintedRegistryAccess;
+    @Nullable
+    private DiskCache<T> diskCache;
+    private boolean deltaSync = false;
+    private int dataVersion = 0;
+    private volatile int syncedVersion = -1;
+    private CompletableFuture<Void> receiveQueue = CompletableFuture.completedFuture(null);
+    @Nullable
+    private EncodedVersion<T> encodedVersion;
+    @Nullable
+    private Map<ResourceLocation, T> previousData;
+    @Nullable
+    private List<CustomPacketPayload> syncPayloads;
+    private int syncChunkSize = 0;
+    private boolean compressSync = false;
+    private final AtomicInteger transferIds = new AtomicInteger();
+    private final ChunkedPayload.Receiver chunkReceiver = new ChunkedPayload.Receiver();
+    @Nullable
+    private SyncBundle syncBundle;
     protected final Logger logger;
 
     public CodecDataManager(ResourceLocation id, Codec<T> elementCodec) {
@@ -105,10 +227,15 @@ public class CodecDataManager<T> extends SimpleJsonResourceReloadListener implem
     }
 
     public CodecDataManager(ResourceLocation id, Codec<T> elementCodec, Codec<T> elementNetworkCodec, Validator<Map<ResourceLocation, T>> validator, @Nullable Logger logger) {
-        super(GSON, id.getPath());
         this.id = id;
+        this.deltaId = id.withSuffix("/delta");
+        this.ackId = id.withSuffix("/ack");
+        this.chunkId = id.withSuffix("/chunk");
+        this.fileToIdConverter = FileToIdConverter.json(id.getPath());
         this.elementCodec = elementCodec;
+        this.elementNetworkCodec = elementNetworkCodec;
         this.networkCodec = Codec.unboundedMap(ResourceLocation.CODEC, elementNetworkCodec);
+        this.deltaCodec = Delta.codec(this.networkCodec);
         this.validator = validator;
         if (logger == null) {
             if (getClass() == CodecDataManager.class) {
@@ -125,46 +252,421 @@ public class CodecDataManager<T> extends SimpleJsonResourceReloadListener implem
 
     public synchronized final CodecDataManager<T> subscribeAsSyncable(IPayloadRegistrar registrar) {
         if (this.isSyncable) return this;
-        registrar.play(this.id, fbb -> new SyncPacket(fbb), b -> b.client((packet, context) -> {
-            context.workHandler().execute(() -> receiveSyncedData(packet.data));
-        }));
+        registrar.play(this.id, fbb -> new SyncPacket(CodecPacket.readRemaining(fbb)), b -> b.client(this::receiveSyncPacket));
+        if (this.deltaSync) {
+            registrar.play(this.deltaId, fbb -> new DeltaPacket(CodecPacket.readRemaining(fbb)), b -> b.client(this::receiveDeltaPacket));
+            registrar.play(this.ackId, fbb -> new AckPacket(fbb), b -> b.server((packet, context) -> {
+                context.workHandler().execute(() -> context.player().ifPresent(player -> onAcknowledged((ServerPlayer) player, packet.version)));
+            }));
+            NeoForge.EVENT_BUS.addListener((PlayerEvent.PlayerLoggedOutEvent event) -> {
+                this.acknowledgedVersions.remove(event.getEntity().getUUID());
+                this.resentVersions.remove(event.getEntity().getUUID());
+            });
+        }
+        if (this.syncChunkSize > 0) {
+            registrar.play(this.chunkId, fbb -> ChunkedPayload.Chunk.read(this.chunkId, fbb), b -> b.client(this::receiveChunk));
+            if (FMLEnvironment.dist.isClient()) {
+                ClientEvents.onLoggingOut(this.chunkReceiver::reset);
+            }
+        }
+        if (this.syncBundle != null) {
+            this.syncBundle.subscribe(registrar); // the bundle sends the data of this manager
+            this.isSyncable = true;
+            return this;
+        }
         NeoForge.EVENT_BUS.addListener((OnDatapackSyncEvent event) -> {
             if (this.data == null) return;
-            SyncPacket syncPacket = new SyncPacket(this.data);
+            List<CustomPacketPayload> syncPayloads = currentSyncPayloads();
             ServerPlayer player = event.getPlayer();
             if (player != null) {
-                player.connection.send(syncPacket);
+                send(player, syncPayloads);
+            } else if (this.deltaSync) {
+                broadcastDelta(event.getPlayerList().getPlayers(), syncPayloads);
             } else {
-                event.getPlayerList().broadcastAll(new ClientboundCustomPayloadPacket(syncPacket));
+                for (CustomPacketPayload payload : syncPayloads) {
+                    event.getPlayerList().broadcastAll(new ClientboundCustomPayloadPacket(payload));
+                }
             }
         });
         this.isSyncable = true;
         return this;
     }
 
+    /**
+     * Only send the entries that were added, changed or removed since the last reload to players that acknowledged the previous version of the data.<br>
+     * Players joining or lagging behind receive the full data instead, which is resent at most once per version to a player that fails to decode it. Must be called before {@link #subscribeAsSyncable(IPayloadRegistrar)}.
+     */
+    public synchronized CodecDataManager<T> deltaSync() {
+        if (this.isSyncable) throw new IllegalStateException("Delta sync has to be enabled before subscribing data manager %s as syncable".formatted(id()));
+        if (this.syncBundle != null) throw new IllegalStateException("Data manager %s cannot use delta sync together with bundled sync".formatted(id()));
+        this.deltaSync = true;
+        return this;
+    }
+
+    /**
+     * Split sync payloads larger than {@code maxChunkSize} bytes into multiple packets, which the client assembles before applying the data.<br>
+     * Must be called before {@link #subscribeAsSyncable(IPayloadRegistrar)}.
+     *
+     * @param maxChunkSize the maximum number of payload bytes per packet.
+     * @param compress     whether to deflate the payloads, which sends every payload in chunks.
+     */
+    public synchronized CodecDataManager<T> chunkedSync(int maxChunkSize, boolean compress) {
+        if (this.isSyncable) throw new IllegalStateException("Chunked sync has to be enabled before subscribing data manager %s as syncable".formatted(id()));
+        if (this.syncBundle != null) throw new IllegalStateException("Data manager %s cannot use chunked sync together with bundled sync".formatted(id()));
+        if (maxChunkSize < 1 || maxChunkSize > MAX_SYNC_CHUNK_SIZE) throw new IllegalArgumentException("Chunk size must be between 1 and %d but was %d".formatted(MAX_SYNC_CHUNK_SIZE, maxChunkSize));
+        this.syncChunkSize = maxChunkSize;
+        this.compressSync = compress;
+        return this;
+    }
+
+    /**
+     * Split large sync payloads into compressed chunks of the default size.
+     *
+     * @see #chunkedSync(int, boolean)
+     */
+    public CodecDataManager<T> chunkedSync() {
+        return chunkedSync(DEFAULT_SYNC_CHUNK_SIZE, true);
+    }
+
+    /**
+     * Send the data of this data manager together with all other bundled data managers of the same namespace in a single payload per player.<br>
+     * Large bundles are split into chunks, and compressed if any data manager of the bundle asks for it.
+     * Cannot be combined with {@link #deltaSync()} or {@link #chunkedSync(int, boolean)}, and must be called before {@link #subscribeAsSyncable(IPayloadRegistrar)}.
+     *
+     * @param compress whether to deflate the bundle.
+     */
+    public synchronized CodecDataManager<T> bundledSync(boolean compress) {
+        if (this.isSyncable) throw new IllegalStateException("Bundled sync has to be enabled before subscribing data manager %s as syncable".formatted(id()));
+        if (this.deltaSync || this.syncChunkSize > 0) throw new IllegalStateException("Data manager %s cannot use bundled sync together with delta or chunked sync".formatted(id()));
+        this.syncBundle = SyncBundle.join(this, compress);
+        return this;
+    }
+
+    /**
+     * Send the data of this data manager in a compressed bundle with all other bundled data managers of the same namespace.
+     *
+     * @see #bundledSync(boolean)
+     */
+    public CodecDataManager<T> bundledSync() {
+        return bundledSync(true);
+    }
+
     public CodecDataManager<T> useRegistryOps() {
         this.useRegistryOps = true;
         return this;
     }
 
+    /**
+     * Sync the data with the given buffer codec instead of the network codec, which skips building an intermediate tag tree.
+     *
+     * @param bufferCodec the buffer codec for a single entry.
+     */
+    public CodecDataManager<T> useBufferCodec(BufferCodec<T> bufferCodec) {
+        this.elementBufferCodec = bufferCodec;
+        this.networkBufferCodec = BufferCodec.mapOf(BufferCodec.RESOURCE_LOCATION, bufferCodec);
+        this.deltaBufferCodec = Delta.bufferCodec(this.networkBufferCodec);
+        return this;
+    }
+
+    /**
+     * Decode the loaded jsons and run the {@link #validateEntries(EntryValidator) entry validators} on up to {@code parallelism} worker threads.<br>
+     * The resulting data and the order of logged errors are the same as with sequential decoding.
+     *
+     * @param parallelism the maximum number of threads used for decoding, {@code 1} disables parallel decoding.
+     */
+    public CodecDataManager<T> parallelDecoding(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1 but was " + parallelism);
+        this.decodeParallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Decode the loaded jsons on one worker thread per available processor.
+     *
+     * @see #parallelDecoding(int)
+     */
+    public CodecDataManager<T> parallelDecoding() {
+        return parallelDecoding(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Validate every entry on its own before the validator of this data manager runs, entries failing validation are removed.<br>
+     * Entry validators use the same worker threads as {@link #parallelDecoding(int)}. Adding multiple entry validators runs them in order.
+     *
+     * @param entryValidator the validator for single entries.
+     * @see #getValidationProblems()
+     */
+    public synchronized CodecDataManager<T> validateEntries(EntryValidator<T> entryValidator) {
+        this.entryValidator = this.entryValidator != null ? this.entryValidator.and(entryValidator) : entryValidator;
+        return this;
+    }
+
+    /**
+     * Run the validator on the background reload thread right after decoding instead of on the game thread.<br>
+     * The validator then sees the new data before it is published, so it must not read this data manager directly.
+     * Cannot be combined with {@link #dependsOn(IDataManager[])}, as the dependencies are not published yet while validating in the background.
+     */
+    public synchronized CodecDataManager<T> validateInBackground() {
+        if (!this.dependencies.isEmpty()) throw new IllegalStateException("Data manager %s depends on other data managers and cannot validate in the background".formatted(id()));
+        this.validateInBackground = true;
+        return this;
+    }
+
+    /**
+     * Keep a fingerprint of the contents of every loaded file and only parse and decode files that changed since the last reload.<br>
+     * Unchanged entries keep their previously decoded value, as long as the registry access did not change.
+     *
+     * @see #getLastReloadStats()
+     */
+    public CodecDataManager<T> incrementalReload() {
+        this.incrementalReload = true;
+        return this;
+    }
+
+    /**
+     * Cache the decoded data in a binary file in the {@code codeclib/cache} folder of the config directory.
+     *
+     * @see #useDiskCache(String, Path, BufferCodec)
+     */
+    public CodecDataManager<T> useDiskCache(String version) {
+        return useDiskCache(version, FMLPaths.CONFIGDIR.get().resolve("codeclib").resolve("cache"));
+    }
+
+    /**
+     * Cache the decoded data in a binary file in the given directory, encoded as nbt with the element codec.
+     *
+     * @see #useDiskCache(String, Path, BufferCodec)
+     */
+    public CodecDataManager<T> useDiskCache(String version, Path directory) {
+        return useDiskCache(version, directory, null);
+    }
+
+    /**
+     * Cache the decoded data in a binary file in the given directory.<br>
+     * While the data files and the version are unchanged, reloads read the data from the cache instead of parsing and decoding the jsons.
+     * Invalid or outdated cache files are ignored and replaced.
+     * The version is the only thing identifying the codecs, so cache files written with a different codec are read as long as the version stays the same.
+     *
+     * @param version     the version of the cached data, must change whenever the element codec, the cache codec or the decoded type change.
+     * @param directory   the directory to store the cache file in.
+     * @param cacheCodec  the buffer codec used to store the entries without going through nbt, or {@code null} to use the element codec.
+     */
+    public CodecDataManager<T> useDiskCache(String version, Path directory, @Nullable BufferCodec<T> cacheCodec) {
+        Path file = directory.resolve(id().getNamespace()).resolve(id().getPath() + ".bin");
+        this.diskCache = new DiskCache<>(file, version, this.elementCodec, cacheCodec, this.logger);
+        return this;
+    }
+
+    /**
+     * Parse and decode every data file right after reading it, instead of parsing all files before decoding them.<br>
+     * Only the json trees of the files currently being decoded are kept in memory, at most one per {@link #parallelDecoding(int) decode thread}.
+     */
+    public CodecDataManager<T> streamingDecoding() {
+        this.streamingDecoding = true;
+        return this;
+    }
+
+    /**
+     * Keep the contents of the data files and only decode an entry when it is first accessed.
+     *
+     * @see #lazyDecoding(long)
+     */
+    public CodecDataManager<T> lazyDecoding() {
+        return lazyDecoding(0);
+    }
+
+    /**
+     * Keep the contents of the data files and only decode an entry when it is first accessed, decoded entries are kept for later accesses.<br>
+     * Entries failing to decode are logged and treated as absent. Entry validators run when an entry is decoded,
+     * and the validator gets an unmodifiable map, so it cannot remove entries and decodes all entries if it iterates the data.
+     * Incremental reloads, the disk cache and the frozen index are not used in this mode, and syncing the data decodes all entries.
+     * As failed entries are excluded from the map, {@link #size()} decodes all entries the first time it is called after a reload.
+     *
+     * @param maxDecoded the maximum number of decoded entries to keep, least recently used entries are decoded again on their next access, {@code 0} keeps all decoded entries.
+     */
+    public CodecDataManager<T> lazyDecoding(long maxDecoded) {
+        if (maxDecoded < 0) throw new IllegalArgumentException("Maximum number of decoded entries must not be negative but was " + maxDecoded);
+        this.lazyDecoding = true;
+        this.maxLazilyDecoded = maxDecoded;
+        return this;
+    }
+
+    /**
+     * Intern the decoded and received entries with the given interner, so equal entries share a single instance.<br>
+     * Sub-values are interned by wrapping their codecs with {@link ValueInterner#wrap(Codec)} when building the element codec.
+     * Entries loaded from the {@link #useDiskCache(String) disk cache} or reused by an {@link #incrementalReload() incremental reload} are interned as well.
+     *
+     * @param interner the interner to use.
+     * @see DataManagerMetrics#deduplicated()
+     */
+    public CodecDataManager<T> internValues(ValueInterner interner) {
+        this.interner = interner;
+        if (FMLEnvironment.dist.isClient()) {
+            ClientEvents.onLoggingOut(interner::clear); // received entries are not referenced anymore
+        }
+        return this;
+    }
+
+    /**
+     * Publish the loaded data as a {@link FrozenIndex}, which provides faster lookups and integer ids for the entries.
+     *
+     * @see #idOf(ResourceLocation)
+     * @see #getById(int)
+     */
+    public CodecDataManager<T> useFrozenIndex() {
+        this.useFrozenIndex = true;
+        return this;
+    }
+
+    /**
+     * Let the {@link ReloadCoordinator} load this data manager together with all other coordinated data managers.<br>
+     * The data is then decoded concurrently with the other data managers and published after the data managers this one {@link #dependsOn(IDataManager[]) depends on}.
+     * Registering the data manager as reload listener is not required anymore, if it still is, its own reload does nothing.
+     */
+    public synchronized CodecDataManager<T> coordinatedReload() {
+        this.coordinatedReload = true;
+        ReloadCoordinator.register();
+        return this;
+    }
+
+    /**
+     * Declare that the validator of this data manager reads the given data managers.<br>
+     * With {@link #coordinatedReload()} this data manager is then validated and published after them, if they are coordinated as well.
+     * Cannot be combined with {@link #validateInBackground()}.
+     *
+     * @param dependencies the data managers this data manager depends on.
+     */
+    public CodecDataManager<T> dependsOn(IDataManager<?>... dependencies) {
+        for (IDataManager<?> dependency : dependencies) {
+            if (dependency.id().equals(id())) throw new IllegalArgumentException("Data manager %s cannot depend on itself".formatted(id()));
+            if (reaches(dependency.id(), id(), new HashSet<>())) throw new IllegalArgumentException("Data manager %s cannot depend on %s, which already depends on it".formatted(id(), dependency.id()));
+        }
+        synchronized (this) {
+            if (this.validateInBackground) throw new IllegalStateException("Data manager %s validates in the background and cannot depend on other data managers".formatted(id()));
+            for (IDataManager<?> dependency : dependencies) {
+                this.dependencies.add(dependency.id());
+            }
+        }
+        return this;
+    }
+
+    // whether the data manager with the given id depends on the target, directly or through other data managers
+    private static boolean reaches(ResourceLocation from, ResourceLocation target, Set<ResourceLocation> visited) {
+        if (from.equals(target)) return true;
+        if (!visited.add(from)) return false;
+        CodecDataManager<?> manager;
+        synchronized (DATA_MANAGER) {
+            manager = DATA_MANAGER.get(from);
+        }
+        if (manager == null) return false;
+        for (ResourceLocation dependency : manager.dependencies()) {
+            if (reaches(dependency, target, visited)) return true;
+        }
+        return false;
+    }
+
+    synchronized Set<ResourceLocation> dependencies() {
+        return Set.copyOf(this.dependencies);
+    }
+
+    static List<CodecDataManager<?>> coordinatedManagers() {
+        synchronized (DATA_MANAGER) {
+            return DATA_MANAGER.values().stream().filter(manager -> manager.coordinatedReload).toList();
+        }
+    }
+
+    /**
+     * @return The counters of the last reload of this data manager.
+     */
+    public ReloadStats getLastReloadStats() {
+        return this.lastReloadStats;
+    }
+
+    /**
+     * @return The entries rejected by the entry validators and the failure of the validator, if any, during the last reload.
+     */
+    public List<Validator.Problem> getValidationProblems() {
+        return this.validationProblems;
+    }
+
+    /**
+     * @return The measurements of the last reload and sync of this data manager.
+     */
+    public DataManagerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return The metrics of all data managers, sorted by their id.
+     */
+    public static Map<ResourceLocation, DataManagerMetrics> getAllMetrics() {
+        Map<ResourceLocation, DataManagerMetrics> metrics = new TreeMap<>();
+        synchronized (DATA_MANAGER) {
+            DATA_MANAGER.forEach((id, manager) -> metrics.put(id, manager.getMetrics()));
+        }
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * @return The metrics of all data managers as a json object keyed by the ids of the data managers.
+     */
+    public static JsonObject dumpMetrics() {
+        JsonObject json = new JsonObject();
+        getAllMetrics().forEach((id, metrics) -> json.add(id.toString(), metrics.toJson()));
+        return json;
+    }
+
+    /**
+     * Register the {@code /codeclib metrics} command, which writes the metrics of all data managers to {@code debug/codeclib-metrics.json} in the game directory.<br>
+     * Calling this more than once has no effect.
+     */
+    public static synchronized void registerMetricsCommand() {
+        if (metricsCommandRegistered) return;
+        NeoForge.EVENT_BUS.addListener((RegisterCommandsEvent event) -> registerMetricsCommand(event.getDispatcher()));
+        metricsCommandRegistered = true;
+    }
+
+    private static void registerMetricsCommand(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("codeclib")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("metrics").executes(context -> {
+                    JsonObject metrics = dumpMetrics();
+                    Path file = FMLPaths.GAMEDIR.get().resolve("debug").resolve("codeclib-metrics.json");
+                    try {
+                        Files.createDirectories(file.getParent());
+                        Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(metrics));
+                    } catch (IOException e) {
+                        LoggerFactory.getLogger(CodecDataManager.class).error("Failed to write data manager metrics to {}", file, e);
+                        context.getSource().sendFailure(Component.literal("Failed to write data manager metrics: " + e.getMessage()));
+                        return 0;
+                    }
+                    context.getSource().sendSuccess(() -> Component.literal("Wrote metrics of %d data managers to %s".formatted(metrics.size(), file)), false);
+                    return metrics.size();
+                })));
+    }
+
     @Override
     public int size() {
-        return isLoaded() ? this.data.size() : 0;
+        Map<ResourceLocation, T> data = this.data;
+        return data != null ? data.size() : 0;
     }
 
     @Override
     public boolean isEmpty() {
-        return isLoaded() && this.data.isEmpty();
+        Map<ResourceLocation, T> data = this.data;
+        return data != null && data.isEmpty();
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return isLoaded() && this.data.containsKey(key);
+        Map<ResourceLocation, T> data = this.data;
+        return data != null && data.containsKey(key);
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return isLoaded() && this.data.containsValue(value);
+        Map<ResourceLocation, T> data = this.data;
+        return data != null && data.containsValue(value);
     }
 
     @Override
@@ -192,77 +694,910 @@ public class CodecDataManager<T> extends SimpleJsonResourceReloadListener implem
     @Override
     public T get(@Nullable ResourceLocation id) {
         if (id == null) return null;
-        if (this.data == null) return null;
-        return this.data.get(id);
+        Map<ResourceLocation, T> data = this.data;
+        if (data == null) return null;
+        return data.get(id);
+    }
+
+    /**
+     * Retrieve the value with the given id from this data manager.<br>
+     * Lookups with the string form of existing ids and repeated lookups with the same string do not allocate,
+     * except for the first lookup after the data changed, which indexes the entries by their string ids.
+     *
+     * @param id the string representation of the id of the data to get.
+     * @return The data with the given id.
+     */
+    @Nullable
+    @Override
+    public T getByString(@Nullable CharSequence id) {
+        if (id == null) return null;
+        String key = id.toString();
+        Map<ResourceLocation, T> data = snapshot();
+        if (!(data instanceof LazyDataMap<T>)) { // indexing the values would decode every entry
+            StringIndex<T> index = this.stringIndex;
+            if (index == null || index.data() != data) {
+                index = StringIndex.of(data);
+                this.stringIndex = index; // concurrent lookups may build the same index, either one is kept
+            }
+            T value = index.values().get(key);
+            if (value != null) return value;
+        }
+        return data.get(parseKey(key)); // not in canonical form, missing or lazily decoded
+    }
+
+    private ResourceLocation parseKey(String key) {
+        ResourceLocation parsed = this.parsedKeys.getIfPresent(key);
+        if (parsed == null) {
+            parsed = new ResourceLocation(key);
+            this.parsedKeys.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Retrieve the integer id of the entry with the given id, requires {@link #useFrozenIndex()}.<br>
+     * Integer ids change when the data is reloaded or synced, use {@link #snapshot()} to keep using the same ids over a longer time.
+     *
+     * @param id the id of the entry.
+     * @return The integer id of the entry, or {@code -1} if there is no such entry.
+     */
+    public int idOf(@Nullable ResourceLocation id) {
+        return frozenIndex().idOf(id);
+    }
+
+    /**
+     * Retrieve the value with the given integer id, requires {@link #useFrozenIndex()}.
+     *
+     * @param id the integer id of the value, see {@link #idOf(ResourceLocation)}.
+     * @return The value with the given integer id, or {@code null} if there is no such value.
+     */
+    @Nullable
+    public T getById(int id) {
+        return frozenIndex().getById(id);
+    }
+
+    private FrozenIndex<T> frozenIndex() {
+        if (!(snapshot() instanceof FrozenIndex<T> index)) throw throwing(new IllegalStateException("Data manager %s does not use a frozen index".formatted(id())));
+        return index;
+    }
+
+    @NotNull
+    @Override
+    public Map<ResourceLocation, T> snapshot() {
+        Map<ResourceLocation, T> data = this.data;
+        return data != null ? data : Map.of();
     }
 
     @NotNull
     @Override
     public Set<ResourceLocation> keySet() {
-        return isLoaded() ? Collections.unmodifiableSet(this.data.keySet()) : Collections.emptySet();
+        return snapshot().keySet();
     }
 
     @NotNull
     @Override
     public Collection<T> values() {
-        return isLoaded() ? Collections.unmodifiableCollection(this.data.values()) : Collections.emptyList();
+        return snapshot().values();
     }
 
     @NotNull
     @Override
     public Set<Entry<ResourceLocation, T>> entrySet() {
-        return isLoaded() ? Collections.unmodifiableSet(this.data.entrySet()) : Collections.emptySet();
+        return snapshot().entrySet();
     }
 
+    @Nullable
     @Override
-    protected final void apply(Map<ResourceLocation, JsonElement> dataIn, ResourceManager resourceManager, ProfilerFiller profiler) {
-        this.logger.info("Beginning loading of data for data manager: {}", id());
-        profiler.push("data_manager_%s_deserialize".formatted(id().toString().replace(':', '_').replace('/', '_')));
-        this.data = mapData(dataIn, this.data != null ? this.data : new HashMap<>(), this.elementCodec, this.logger);
-        profiler.pop();
-        this.logger.info("Data manager for {} loaded {} jsons", id(), this.data.size());
+    protected final PreparedData<T> prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+        if (this.coordinatedReload) return null; // loaded by the ReloadCoordinator
+        return load(resourceManager, profiler);
+    }
+
+    private PreparedData<T> loadLazily(ResourceManager resourceManager, ProfilerFiller profiler, @Nullable RegistryAccess registryAccess) {
+        LoadMetrics metrics = new LoadMetrics();
+        Map<ResourceLocation, byte[]> raw = new HashMap<>();
+        for (Entry<ResourceLocation, Resource> entry : this.fileToIdConverter.listMatchingResources(resourceManager).entrySet()) {
+            ResourceLocation key = this.fileToIdConverter.fileToId(entry.getKey());
+            try (InputStream stream = entry.getValue().open()) {
+                byte[] bytes = stream.readAllBytes();
+                metrics.inputBytes += bytes.length;
+                if (raw.put(key, bytes) != null) {
+                    throw new IllegalStateException("Duplicate data file ignored with ID " + key);
+                }
+            } catch (IllegalStateException | IOException e) {
+                metrics.failures++;
+                this.logger.error("Couldn't read data file {} from {}", key, entry.getKey(), e);
+            }
+        }
+        DynamicOps<JsonElement> ops = getOps(registryAccess);
+        EntryValidator<T> entryValidator = this.entryValidator;
+        Map<ResourceLocation, T> data = new LazyDataMap<>(raw, (key, bytes) -> decodeLazily(key, bytes, ops, entryValidator), this.maxLazilyDecoded);
+        this.logger.info("Data manager for {} found {} data files to decode on demand", id(), raw.size());
+        int removed = 0;
+        Map<ResourceLocation, T> current = this.data;
+        if (current != null) {
+            for (ResourceLocation key : current.keySet()) {
+                if (!raw.containsKey(key)) removed++;
+            }
+        }
+        ReloadStats stats = new ReloadStats(0, 0, removed);
+        DataManagerMetrics loadMetrics = new DataManagerMetrics(raw.size(), metrics.failures, metrics.inputBytes, 0, 0, List.of(), 0, 0, 0);
+        if (this.validateInBackground) {
+            List<Validator.Problem> problems = new ArrayList<>();
+            long validationNanos = validate(data, profiler, problems);
+            return new PreparedData<>(data, true, stats, Map.of(), registryAccess, loadMetrics.withValidation(raw.size(), validationNanos), problems);
+        }
+        return new PreparedData<>(data, false, stats, Map.of(), registryAccess, loadMetrics, List.of());
+    }
+
+    @Nullable
+    private T decodeLazily(ResourceLocation key, byte[] bytes, DynamicOps<JsonElement> ops, @Nullable EntryValidator<T> entryValidator) {
+        JsonElement json;
+        try {
+            json = GsonHelper.fromJson(GSON, new String(bytes, StandardCharsets.UTF_8), JsonElement.class);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            this.logger.error("Couldn't parse data file for {}", key, e);
+            return null;
+        }
+        DataResult<T> result = this.elementCodec.parse(ops, json).map(this::intern);
+        if (entryValidator != null) {
+            result = result.flatMap(value -> entryValidator.validate(key, value));
+        }
+        return result.get().map(value -> value, partial -> {
+            this.logger.error("Failed to decode data json for {} due to: {}", key, partial.message());
+            return null;
+        });
+    }
+
+    @Override
+    protected final void apply(@Nullable PreparedData<T> prepared, ResourceManager resourceManager, ProfilerFiller profiler) {
+        if (prepared == null) return;
+        publish(prepared, profiler);
+    }
+
+    PreparedData<T> load(ResourceManager resourceManager, ProfilerFiller profiler) {
+        return load(resourceManager, profiler, this.useRegistryOps ? RegistryAccessGetter.getServerRegistryAccess() : null);
+    }
+
+    PreparedData<T> load(ResourceManager resourceManager, ProfilerFiller profiler, @Nullable RegistryAccess registryAccess) {
+        if (this.interner == null) {
+            return this.lazyDecoding ? loadLazily(resourceManager, profiler, registryAccess) : loadEagerly(resourceManager, profiler, registryAccess);
+        }
+        this.interner.beginLoad();
+        try {
+            PreparedData<T> prepared = this.lazyDecoding ? loadLazily(resourceManager, profiler, registryAccess) : loadEagerly(resourceManager, profiler, registryAccess);
+            this.logger.info("Data manager for {} deduplicated {} decoded values", id(), prepared.metrics.deduplicated());
+            return prepared;
+        } finally {
+            this.interner.endLoad();
+        }
+    }
+
+    private PreparedData<T> loadEagerly(ResourceManager resourceManager, ProfilerFiller profiler, @Nullable RegistryAccess registryAccess) {
+        Map<ResourceLocation, Fingerprinted<T>> previous = this.fingerprintedRegistryAccess == registryAccess ? this.fingerprintedEntries : Map.of();
+        Map<ResourceLocation, HashCode> fingerprints = this.incrementalReload || this.diskCache != null ? new HashMap<>() : null;
+        Map<ResourceLocation, T> data = new HashMap<>();
+        Set<ResourceLocation> loaded = Set.of();
+        LoadMetrics metrics = new LoadMetrics();
+        HashCode cacheFingerprint = null;
+        Map<ResourceLocation, T> cached = null;
+        Map<ResourceLocation, Resource> resources = this.fileToIdConverter.listMatchingResources(resourceManager);
+        if (this.diskCache != null) {
+            resources = readFiles(resources, fingerprints, metrics); // a cache miss decodes the contents read here instead of reading the files again
+            cacheFingerprint = this.diskCache.fingerprint(fingerprints);
+            long start = System.nanoTime();
+            cached = this.diskCache.read(cacheFingerprint, registryAccess);
+            metrics.decodeNanos = System.nanoTime() - start;
+        }
+        int reused = 0;
+        if (cached != null) {
+            data.putAll(internAll(cached, metrics));
+            this.logger.info("Data manager for {} loaded {} entries from its data cache", id(), data.size());
+        } else {
+            long readBytes = metrics.inputBytes; // counted by readFiles if the disk cache read the files
+            if (this.streamingDecoding) {
+                this.logger.info("Beginning loading of data for data manager: {}", id());
+                profiler.push(profilerSection("deserialize"));
+                long start = System.nanoTime();
+                loaded = new HashSet<>();
+                reused = decodeStreaming(resources, previous, fingerprints, data, loaded, metrics, registryAccess);
+                metrics.decodeNanos = System.nanoTime() - start;
+                profiler.pop();
+            } else {
+                Map<ResourceLocation, JsonElement> dataIn = scanDirectory(resources, previous, fingerprints, data, metrics);
+                loaded = dataIn.keySet();
+                reused = data.size();
+                this.logger.info("Beginning loading of data for data manager: {}", id());
+                profiler.push(profilerSection("deserialize"));
+                long start = System.nanoTime();
+                mapData(dataIn, data, this.elementCodec, this.logger, registryAccess, metrics);
+                metrics.decodeNanos = System.nanoTime() - start;
+                profiler.pop();
+            }
+            this.logger.info("Data manager for {} loaded {} jsons", id(), data.size());
+            if (this.diskCache != null) {
+                metrics.inputBytes = readBytes; // the decoding counted the files read before again
+                this.diskCache.write(cacheFingerprint, data, registryAccess);
+            }
+        }
+        int removed = 0;
+        Map<ResourceLocation, T> current = this.data;
+        if (current != null) {
+            for (ResourceLocation key : current.keySet()) {
+                if (!loaded.contains(key) && (fingerprints == null || !fingerprints.containsKey(key))) removed++;
+            }
+        }
+        ReloadStats stats = new ReloadStats(reused, data.size() - reused, removed);
+        Map<ResourceLocation, Fingerprinted<T>> fingerprinted = Map.of();
+        if (this.incrementalReload) {
+            this.logger.info("Data manager for {} reused {} unchanged entries, decoded {} and removed {}", id(), stats.reused(), stats.decoded(), stats.removed());
+            fingerprinted = new HashMap<>();
+            for (Entry<ResourceLocation, T> entry : data.entrySet()) {
+                fingerprinted.put(entry.getKey(), new Fingerprinted<>(fingerprints.get(entry.getKey()), entry.getValue()));
+            }
+        }
+        DataManagerMetrics loadMetrics = new DataManagerMetrics(data.size(), metrics.failures, metrics.inputBytes, metrics.decodeNanos, 0, metrics.slowestEntries, 0, 0, metrics.deduplicated);
+        if (this.validateInBackground) {
+            List<Validator.Problem> problems = new ArrayList<>();
+            long validationNanos = validate(data, profiler, problems);
+            return new PreparedData<>(freeze(data), true, stats, fingerprinted, registryAccess, loadMetrics.withValidation(data.size(), validationNanos), problems);
+        }
+        return new PreparedData<>(data, false, stats, fingerprinted, registryAccess, loadMetrics, List.of());
+    }
+
+    void publish(PreparedData<T> prepared, ProfilerFiller profiler) {
+        Map<ResourceLocation, T> data = prepared.data;
+        DataManagerMetrics metrics = prepared.metrics;
+        List<Validator.Problem> problems = prepared.problems;
+        if (!prepared.validated) {
+            problems = new ArrayList<>();
+            long validationNanos = validate(data, profiler, problems);
+            metrics = metrics.withValidation(countEntries(data), validationNanos);
+            data = freeze(data);
+        }
+        if (this.deltaSync) {
+            keepPreviousData();
+        }
+        // publish the validated data as an immutable snapshot with a single write
+        this.data = data;
+        this.dataVersion++;
+        invalidateSyncPayloads();
+        this.lastReloadStats = prepared.stats;
+        this.fingerprintedEntries = prepared.fingerprinted;
+        this.fingerprintedRegistryAccess = prepared.registryAccess;
+        this.metrics = metrics;
+        this.validationProblems = List.copyOf(problems);
+    }
+
+    private long validate(Map<ResourceLocation, T> data, ProfilerFiller profiler, List<Validator.Problem> problems) {
         this.logger.info("Beginning validation of data for data manager: {}", id());
-        profiler.push("data_manager_%s_validate".formatted(id().toString().replace(':', '_').replace('/', '_')));
+        profiler.push(profilerSection("validate"));
+        long start = System.nanoTime();
+        if (this.entryValidator != null && !(data instanceof LazyDataMap<T>)) { // lazily decoded entries are validated when they are decoded
+            validateEntries(data, this.entryValidator, problems);
+        }
         try {
-            this.validator.validate(this.data, logger); // yes it is intentional to pass the mutable data
-            this.logger.info("Data manager for {} finished validation of {} entries", id(), this.data.size());
+            this.validator.validate(data, logger); // yes it is intentional to pass the mutable data
+            this.logger.info("Data manager for {} finished validation of {} entries", id(), countEntries(data));
         } catch (Validator.ValidationError e) {
+            problems.add(new Validator.Problem(null, e.getMessage() != null ? e.getMessage() : "Validation failed"));
             this.logger.error("Data manager for {} failed validation", id(), e);
         }
+        long validationNanos = System.nanoTime() - start;
         profiler.pop();
+        return validationNanos;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void validateEntries(Map<ResourceLocation, T> data, EntryValidator<T> entryValidator, List<Validator.Problem> problems) {
+        List<Entry<ResourceLocation, T>> entries = List.copyOf(data.entrySet());
+        DataResult<T>[] results = new DataResult[entries.size()];
+        forEachRange(entries.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Entry<ResourceLocation, T> entry = entries.get(i);
+                try {
+                    results[i] = entryValidator.validate(entry.getKey(), entry.getValue());
+                } catch (RuntimeException e) {
+                    results[i] = DataResult.error(e::toString);
+                }
+            }
+        });
+        for (int i = 0; i < entries.size(); i++) {
+            ResourceLocation key = entries.get(i).getKey();
+            results[i]
+                    .get()
+                    .ifLeft(value -> data.put(key, value))
+                    .ifRight(partial -> {
+                        data.remove(key);
+                        problems.add(new Validator.Problem(key, partial.message()));
+                        this.logger.error("Data manager for {} rejected entry {}: {}", id(), key, partial.message());
+                    });
+        }
+    }
+
+    // counts the files of lazily decoded data instead of decoding every entry to exclude failures
+    private static int countEntries(Map<ResourceLocation, ?> data) {
+        return data instanceof LazyDataMap<?> lazy ? lazy.fileCount() : data.size();
+    }
+
+    private String profilerSection(String name) {
+        return "data_manager_%s_%s".formatted(id().toString().replace(':', '_').replace('/', '_'), name);
     }
 
     protected void receiveSyncedData(Map<ResourceLocation, T> data) {
         if (this.data == data || data == null) return;
-        if (this.data == null) {
-            this.data = data;
+        invalidateSyncPayloads();
+        this.data = freeze(data); // no-op for the immutable maps built by the receive path
+    }
+
+    private T intern(T value, @Nullable LoadMetrics metrics) {
+        if (this.interner == null) return value;
+        T interned = this.interner.intern(value);
+        if (metrics != null && interned != value) {
+            metrics.deduplicated++; // counted here, as the counters of the interner include other data managers sharing it
+        }
+        return interned;
+    }
+
+    private Map<ResourceLocation, T> internAll(Map<ResourceLocation, T> data, @Nullable LoadMetrics metrics) {
+        if (this.interner == null) return data;
+        Map<ResourceLocation, T> interned = new HashMap<>(data.size());
+        data.forEach((key, value) -> interned.put(key, intern(value, metrics)));
+        return interned;
+    }
+
+    private Map<ResourceLocation, T> freeze(Map<ResourceLocation, T> data) {
+        if (data instanceof LazyDataMap<T>) return data; // already immutable, copying it would decode every entry
+        return this.useFrozenIndex ? FrozenIndex.copyOf(data) : Map.copyOf(data);
+    }
+
+    private void receiveSyncPacket(SyncPacket packet, PlayPayloadContext context) {
+        enqueueReceived(() -> {
+            SyncPacket decoded = packet.isDecoded() ? packet : new SyncPacket(wrap(packet.encodedBytes()));
+            if (this.interner == null) return new Received<>(true, decoded.version, freeze(decoded.data), null);
+            this.interner.beginLoad(); // full data replaces all entries received before, so they are dropped from the interner
+            try {
+                return new Received<>(true, decoded.version, freeze(internAll(decoded.data, null)), null);
+            } finally {
+                this.interner.endLoad();
+            }
+        }, context);
+    }
+
+    void receiveBundled(byte[] bytes, PlayPayloadContext context) {
+        receiveSyncPacket(new SyncPacket(bytes), context);
+    }
+
+    private void receiveDeltaPacket(DeltaPacket packet, PlayPayloadContext context) {
+        enqueueReceived(() -> receiveDelta(packet.isDecoded() ? packet.data : new DeltaPacket(wrap(packet.encodedBytes())).data), context);
+    }
+
+    private Received<T> receiveDelta(Delta<T> delta) {
+        Map<ResourceLocation, T> base = this.data;
+        if (base == null || this.syncedVersion != delta.baseVersion()) return new Received<>(false, delta.version(), null, base);
+        Map<ResourceLocation, T> data = new HashMap<>(base);
+        delta.removed().forEach(data::remove);
+        data.putAll(internAll(delta.changed(), null));
+        return new Received<>(false, delta.version(), freeze(data), base);
+    }
+
+    private void receiveChunk(ChunkedPayload.Chunk chunk, PlayPayloadContext context) {
+        ChunkedPayload.Assembled assembled;
+        try {
+            assembled = this.chunkReceiver.accept(chunk);
+        } catch (DataFormatException | IllegalStateException e) {
+            this.logger.error("Failed to receive sync data for data manager {}", id(), e);
+            if (this.deltaSync) {
+                context.workHandler().execute(() -> context.replyHandler().send(new AckPacket(this.syncedVersion)));
+            }
+            return;
+        }
+        if (assembled == null) return;
+        if (assembled.type() == DELTA_PAYLOAD) {
+            receiveDeltaPacket(new DeltaPacket(assembled.payload()), context);
+        } else {
+            receiveSyncPacket(new SyncPacket(assembled.payload()), context);
+        }
+    }
+
+    /**
+     * Decodes received data on a background thread, one payload after another, and publishes it on the client thread.
+     */
+    private synchronized void enqueueReceived(Supplier<Received<T>> decoder, PlayPayloadContext context) {
+        this.receiveQueue = this.receiveQueue
+                .thenApplyAsync(ignored -> decoder.get(), Util.backgroundExecutor())
+                .thenAcceptAsync(received -> publishReceived(received, context.replyHandler()), context.workHandler()::execute)
+                .exceptionally(e -> {
+                    this.logger.error("Failed to receive sync data for data manager {}", id(), e);
+                    if (this.deltaSync) {
+                        // acknowledge the version still in use, so the server resends the full data
+                        context.workHandler().execute(() -> context.replyHandler().send(new AckPacket(this.syncedVersion)));
+                    }
+                    return null;
+                });
+    }
+
+    private void publishReceived(Received<T> received, IReplyHandler replyHandler) {
+        if (received.data() != null && (received.full() || this.data == received.base())) {
+            if (!isIntegratedServerHost()) { // the host shares its data with the integrated server
+                receiveSyncedData(received.data());
+            }
+            this.syncedVersion = received.version();
+        }
+        if (this.deltaSync) {
+            // a mismatching version makes the server resend the full data
+            replyHandler.send(new AckPacket(this.syncedVersion));
+        }
+    }
+
+    private static boolean isIntegratedServerHost() {
+        return FMLEnvironment.dist.isClient() && ServerLifecycleHooks.getCurrentServer() != null;
+    }
+
+    private static FriendlyByteBuf wrap(byte[] bytes) {
+        return new FriendlyByteBuf(Unpooled.wrappedBuffer(bytes));
+    }
+
+    private void onAcknowledged(ServerPlayer player, int version) {
+        this.acknowledgedVersions.put(player.getUUID(), version);
+        if (version == this.dataVersion || this.data == null) return;
+        Integer resent = this.resentVersions.put(player.getUUID(), this.dataVersion);
+        if (resent == null || resent != this.dataVersion) { // resend each version at most once, a client that keeps failing to decode it would otherwise receive it forever
+            send(player, currentSyncPayloads());
         } else {
-            this.data.clear();
-            this.data.putAll(data);
+            this.logger.warn("Player {} still uses version {} of the data of data manager {} after it was resent, not resending it again", player.getScoreboardName(), version, id());
+        }
+    }
+
+    private synchronized List<CustomPacketPayload> currentSyncPayloads() {
+        List<CustomPacketPayload> syncPayloads = this.syncPayloads;
+        if (syncPayloads == null) {
+            long start = System.nanoTime();
+            syncPayloads = toPayloads(new SyncPacket(this.data, this.dataVersion), SYNC_PAYLOAD);
+            long encodeNanos = System.nanoTime() - start;
+            long size = 0;
+            for (CustomPacketPayload payload : syncPayloads) {
+                size += payload instanceof ChunkedPayload.Chunk chunk ? chunk.bytes().length : ((CodecPacket<?>) payload).encodedBytes().length;
+            }
+            this.metrics = this.metrics.withSync(size, encodeNanos);
+            this.syncPayloads = syncPayloads;
+        }
+        return syncPayloads;
+    }
+
+    /**
+     * @return The encoded sync packet of this data manager for its {@link SyncBundle}, or {@code null} if there is no data.
+     */
+    byte @Nullable [] bundledSyncBytes() {
+        if (this.data == null) return null;
+        return ((CodecPacket<?>) currentSyncPayloads().get(0)).encodedBytes(); // bundled managers never split their own payloads
+    }
+
+    private void invalidateSyncPayloads() {
+        this.syncPayloads = null;
+        if (this.syncBundle != null) {
+            this.syncBundle.invalidate();
+        }
+    }
+
+    private void broadcastDelta(List<ServerPlayer> players, List<CustomPacketPayload> syncPayloads) {
+        Delta<T> delta = currentEncodedVersion().delta();
+        List<CustomPacketPayload> deltaPayloads = delta != null ? toPayloads(new DeltaPacket(delta), DELTA_PAYLOAD) : null;
+        for (ServerPlayer player : players) {
+            Integer acknowledged = this.acknowledgedVersions.get(player.getUUID());
+            if (deltaPayloads != null && acknowledged != null && acknowledged == delta.baseVersion()) {
+                send(player, deltaPayloads);
+            } else {
+                send(player, syncPayloads);
+            }
+        }
+    }
+
+    private List<CustomPacketPayload> toPayloads(CodecPacket<?> packet, byte type) {
+        byte[] encoded = packet.encodedBytes();
+        if (this.syncChunkSize <= 0 || !this.compressSync && encoded.length <= this.syncChunkSize) return List.of(packet);
+        return ChunkedPayload.split(this.chunkId, this.transferIds.incrementAndGet(), type, encoded, this.syncChunkSize, this.compressSync);
+    }
+
+    private static void send(ServerPlayer player, List<CustomPacketPayload> payloads) {
+        for (CustomPacketPayload payload : payloads) {
+            player.connection.send(payload);
+        }
+    }
+
+    // keeps the replaced data around until the next broadcast, which only encodes it if no earlier broadcast did
+    private synchronized void keepPreviousData() {
+        EncodedVersion<T> encoded = this.encodedVersion;
+        this.previousData = encoded != null && encoded.version() == this.dataVersion ? null : this.data;
+    }
+
+    private synchronized EncodedVersion<T> currentEncodedVersion() {
+        EncodedVersion<T> previous = this.encodedVersion;
+        if (previous != null && previous.version() == this.dataVersion) return previous;
+        DynamicOps<Tag> ops = getNetworkOps();
+        if (this.previousData != null) {
+            previous = new EncodedVersion<>(this.dataVersion - 1, encodeAll(this.previousData, ops), null);
+            this.previousData = null;
+        }
+        Map<ResourceLocation, Object> entries = encodeAll(this.data, ops);
+        Delta<T> delta = null;
+        if (previous != null && previous.version() == this.dataVersion - 1) {
+            Map<ResourceLocation, T> changed = new HashMap<>();
+            for (Entry<ResourceLocation, Object> entry : entries.entrySet()) {
+                Object encoded = entry.getValue();
+                if (encoded == null || !encoded.equals(previous.entries().get(entry.getKey()))) {
+                    changed.put(entry.getKey(), this.data.get(entry.getKey()));
+                }
+            }
+            List<ResourceLocation> removed = previous.entries().keySet().stream().filter(key -> !entries.containsKey(key)).toList();
+            delta = new Delta<>(previous.version(), this.dataVersion, changed, removed);
+        }
+        EncodedVersion<T> encoded = new EncodedVersion<>(this.dataVersion, entries, delta);
+        this.encodedVersion = encoded;
+        return encoded;
+    }
+
+    private Map<ResourceLocation, Object> encodeAll(Map<ResourceLocation, T> data, DynamicOps<Tag> ops) {
+        Map<ResourceLocation, Object> entries = new HashMap<>();
+        for (Entry<ResourceLocation, T> entry : data.entrySet()) {
+            entries.put(entry.getKey(), encodeForComparison(entry.getValue(), ops));
+        }
+        return entries;
+    }
+
+    @Nullable
+    private Object encodeForComparison(T value, DynamicOps<Tag> ops) {
+        if (this.elementBufferCodec == null) return this.elementNetworkCodec.encodeStart(ops, value).result().orElse(null);
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            this.elementBufferCodec.write(buf, value);
+            return ByteBuffer.wrap(ByteBufUtil.getBytes(buf));
+        } finally {
+            buf.release();
+        }
+    }
+
+    private DynamicOps<Tag> getNetworkOps() {
+        return this.useRegistryOps ? RegistryOpsCache.nbt(RegistryAccessGetter.getRegistryAccess()) : NbtOps.INSTANCE;
+    }
+
+    /**
+     * Read and fingerprint all given files.
+     *
+     * @return the files with their contents kept in memory, without the files that could not be read.
+     */
+    private Map<ResourceLocation, Resource> readFiles(Map<ResourceLocation, Resource> resources, Map<ResourceLocation, HashCode> fingerprints, LoadMetrics metrics) {
+        Map<ResourceLocation, Resource> read = new LinkedHashMap<>();
+        for (Entry<ResourceLocation, Resource> entry : resources.entrySet()) {
+            try (InputStream stream = entry.getValue().open()) {
+                byte[] bytes = stream.readAllBytes();
+                metrics.inputBytes += bytes.length;
+                fingerprints.put(this.fileToIdConverter.fileToId(entry.getKey()), FINGERPRINT_FUNCTION.hashBytes(bytes));
+                read.put(entry.getKey(), new Resource(entry.getValue().source(), () -> new ByteArrayInputStream(bytes)));
+            } catch (IOException e) {
+                metrics.failures++;
+                this.logger.error("Couldn't read data file {}", entry.getKey(), e);
+            }
+        }
+        return read;
+    }
+
+    private Map<ResourceLocation, JsonElement> scanDirectory(Map<ResourceLocation, Resource> resources, Map<ResourceLocation, Fingerprinted<T>> previous, @Nullable Map<ResourceLocation, HashCode> fingerprints, Map<ResourceLocation, T> reused, LoadMetrics metrics) {
+        Map<ResourceLocation, JsonElement> dataIn = new HashMap<>();
+        for (Entry<ResourceLocation, Resource> entry : resources.entrySet()) {
+            ResourceLocation file = entry.getKey();
+            ResourceLocation key = this.fileToIdConverter.fileToId(file);
+            try {
+                byte[] bytes;
+                try (InputStream stream = entry.getValue().open()) {
+                    bytes = stream.readAllBytes();
+                }
+                metrics.inputBytes += bytes.length;
+                if (fingerprints != null) {
+                    HashCode fingerprint = fingerprints.computeIfAbsent(key, k -> FINGERPRINT_FUNCTION.hashBytes(bytes)); // already hashed for the disk cache
+                    Fingerprinted<T> cached = previous.get(key);
+                    if (cached != null && cached.fingerprint().equals(fingerprint)) {
+                        reused.put(key, intern(cached.value(), metrics));
+                        continue;
+                    }
+                }
+                JsonElement json = GsonHelper.fromJson(GSON, new String(bytes, StandardCharsets.UTF_8), JsonElement.class);
+                if (dataIn.put(key, json) != null) {
+                    throw new IllegalStateException("Duplicate data file ignored with ID " + key);
+                }
+            } catch (IllegalArgumentException | IOException | JsonParseException e) {
+                metrics.failures++;
+                this.logger.error("Couldn't parse data file {} from {}", key, file, e);
+            }
+        }
+        return dataIn;
+    }
+
+    private void mapData(Map<ResourceLocation, JsonElement> dataIn, Map<ResourceLocation, T> data, Codec<T> codec, Logger logger, @Nullable RegistryAccess registryAccess, LoadMetrics metrics) {
+        List<Entry<ResourceLocation, JsonElement>> entries = List.copyOf(dataIn.entrySet());
+        long[] decodeNanos = new long[entries.size()];
+        List<DataResult<Pair<T, JsonElement>>> results = decodeAll(entries, codec, registryAccess, decodeNanos);
+        for (int i = 0; i < entries.size(); i++) {
+            ResourceLocation key = entries.get(i).getKey();
+            results.get(i)
+                    .get()
+                    .ifLeft(result -> data.put(key, intern(result.getFirst(), metrics)))
+                    .ifRight(partial -> {
+                        metrics.failures++;
+                        logger.error("Failed to parse data json for {} due to: {}", key.toString(), partial.message());
+                    });
+        }
+        metrics.slowestEntries = slowestEntries(i -> entries.get(i).getKey(), decodeNanos);
+    }
+
+    /**
+     * Read, parse and decode the data files in one step per file, so the json tree of a file can be dropped once it is decoded.
+     *
+     * @return the number of unchanged entries whose previous value was reused.
+     */
+    @SuppressWarnings("unchecked")
+    private int decodeStreaming(Map<ResourceLocation, Resource> files, Map<ResourceLocation, Fingerprinted<T>> previous, @Nullable Map<ResourceLocation, HashCode> fingerprints, Map<ResourceLocation, T> data, Set<ResourceLocation> loaded, LoadMetrics metrics, @Nullable RegistryAccess registryAccess) {
+        List<Entry<ResourceLocation, Resource>> resources = List.copyOf(files.entrySet());
+        Streamed<T>[] results = new Streamed[resources.size()];
+        forEachRange(resources.size(), (from, to) -> {
+            DynamicOps<JsonElement> ops = getOps(registryAccess);
+            for (int i = from; i < to; i++) {
+                results[i] = decodeFile(resources.get(i).getKey(), resources.get(i).getValue(), ops, previous, fingerprints);
+            }
+        });
+        int reused = 0;
+        long[] decodeNanos = new long[results.length];
+        for (int i = 0; i < results.length; i++) {
+            Streamed<T> result = results[i];
+            ResourceLocation key = result.key();
+            decodeNanos[i] = result.decodeNanos();
+            metrics.inputBytes += result.size();
+            if (fingerprints != null && result.fingerprint() != null) {
+                fingerprints.put(key, result.fingerprint());
+            }
+            if (result.exception() != null) {
+                metrics.failures++;
+                this.logger.error("Couldn't parse data file {} from {}", key, result.file(), result.exception());
+                continue;
+            }
+            if (result.reused() != null) {
+                data.put(key, intern(result.reused(), metrics));
+                reused++;
+                continue;
+            }
+            if (!loaded.add(key)) {
+                metrics.failures++;
+                this.logger.error("Couldn't parse data file {} from {}", key, result.file(), new IllegalStateException("Duplicate data file ignored with ID " + key));
+                continue;
+            }
+            result.decoded()
+                    .get()
+                    .ifLeft(value -> data.put(key, intern(value, metrics)))
+                    .ifRight(partial -> {
+                        metrics.failures++;
+                        this.logger.error("Failed to parse data json for {} due to: {}", key.toString(), partial.message());
+                    });
+        }
+        metrics.slowestEntries = slowestEntries(i -> results[i].key(), decodeNanos);
+        return reused;
+    }
+
+    // only reads the fingerprints, which are written after all files are decoded
+    private Streamed<T> decodeFile(ResourceLocation file, Resource resource, DynamicOps<JsonElement> ops, Map<ResourceLocation, Fingerprinted<T>> previous, @Nullable Map<ResourceLocation, HashCode> fingerprints) {
+        ResourceLocation key = this.fileToIdConverter.fileToId(file);
+        long size = 0;
+        HashCode hash = fingerprints != null ? fingerprints.get(key) : null; // already hashed if the disk cache read the files
+        try {
+            byte[] bytes = null;
+            if (hash == null && fingerprints != null) {
+                try (InputStream stream = resource.open()) {
+                    bytes = stream.readAllBytes();
+                }
+                size = bytes.length;
+                hash = FINGERPRINT_FUNCTION.hashBytes(bytes);
+            }
+            if (hash != null) {
+                Fingerprinted<T> cached = previous.get(key);
+                if (cached != null && cached.fingerprint().equals(hash)) return new Streamed<>(file, key, size, hash, cached.value(), null, null, 0);
+            }
+            JsonElement json;
+            if (bytes != null) {
+                json = GsonHelper.fromJson(GSON, new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), JsonElement.class);
+            } else {
+                try (CountingInputStream stream = new CountingInputStream(resource.open()); Reader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                    json = GsonHelper.fromJson(GSON, reader, JsonElement.class);
+                    size = stream.getCount();
+                }
+            }
+            long start = System.nanoTime();
+            DataResult<T> decoded = this.elementCodec.parse(ops, json); // does not keep a reference to the json tree
+            return new Streamed<>(file, key, size, hash, null, decoded, null, System.nanoTime() - start);
+        } catch (IllegalArgumentException | IOException | JsonParseException e) {
+            return new Streamed<>(file, key, size, hash, null, null, e, 0);
+        }
+    }
+
+    private static List<DataManagerMetrics.EntryTiming> slowestEntries(IntFunction<ResourceLocation> keys, long[] decodeNanos) {
+        PriorityQueue<Integer> slowest = new PriorityQueue<>(SLOWEST_ENTRIES + 1, Comparator.comparingLong(i -> decodeNanos[i]));
+        for (int i = 0; i < decodeNanos.length; i++) {
+            slowest.add(i);
+            if (slowest.size() > SLOWEST_ENTRIES) {
+                slowest.poll();
+            }
+        }
+        List<DataManagerMetrics.EntryTiming> timings = new ArrayList<>(slowest.size());
+        while (!slowest.isEmpty()) {
+            int i = slowest.poll();
+            timings.add(new DataManagerMetrics.EntryTiming(keys.apply(i), decodeNanos[i]));
+        }
+        Collections.reverse(timings);
+        return timings;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DataResult<Pair<T, JsonElement>>> decodeAll(List<Entry<ResourceLocation, JsonElement>> entries, Codec<T> codec, @Nullable RegistryAccess registryAccess, long[] decodeNanos) {
+        DataResult<Pair<T, JsonElement>>[] results = new DataResult[entries.size()];
+        forEachRange(entries.size(), (from, to) -> decodeRange(entries, codec, registryAccess, results, decodeNanos, from, to));
+        return List.of(results);
+    }
+
+    /**
+     * Split the indices {@code [0, size)} into consecutive ranges and run the task for each range on up to {@link #parallelDecoding(int) parallelism} worker threads.
+     */
+    private void forEachRange(int size, RangeTask task) {
+        int tasks = Math.min(this.decodeParallelism, size / MIN_ENTRIES_PER_DECODE_TASK);
+        if (tasks <= 1) {
+            task.run(0, size);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(tasks);
+        LongAdder workerNanos = new LongAdder();
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture[tasks];
+            for (int i = 0; i < tasks; i++) {
+                int from = (int) ((long) size * i / tasks);
+                int to = (int) ((long) size * (i + 1) / tasks);
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    long start = ReloadCoordinator.threadTime();
+                    try {
+                        task.run(from, to);
+                    } finally {
+                        workerNanos.add(ReloadCoordinator.threadTime() - start);
+                    }
+                }, pool);
+            }
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        } finally {
+            pool.shutdown();
+            ReloadCoordinator.addWorkerTime(workerNanos.sum()); // the workers run outside the thread measured by the reload coordinator
         }
     }
 
-    private Map<ResourceLocation, T> mapData(Map<ResourceLocation, JsonElement> dataIn, Map<ResourceLocation, T> data, Codec<T> codec, Logger logger) {
-        data.clear();
-        dataIn.forEach((key, jsonElement) -> codec.decode(getOps(), jsonElement)
-                .get()
-                .ifLeft(result -> data.put(key, result.getFirst()))
-                .ifRight(partial -> logger.error("Failed to parse data json for {} due to: {}", key.toString(), partial.message()))
-        );
-        return data;
+    private void decodeRange(List<Entry<ResourceLocation, JsonElement>> entries, Codec<T> codec, @Nullable RegistryAccess registryAccess, DataResult<Pair<T, JsonElement>>[] results, long[] decodeNanos, int from, int to) {
+        DynamicOps<JsonElement> ops = getOps(registryAccess);
+        for (int i = from; i < to; i++) {
+            long start = System.nanoTime();
+            results[i] = codec.decode(ops, entries.get(i).getValue());
+            decodeNanos[i] = System.nanoTime() - start;
+        }
+    }
+
+    private DynamicOps<JsonElement> getOps(@Nullable RegistryAccess registryAccess) {
+        return this.useRegistryOps ? RegistryOpsCache.json(registryAccess) : JsonOps.INSTANCE;
+    }
+
+    /**
+     * The result of the background preparation of a reload, handed to the game thread for publishing.
+     */
+    public static final class PreparedData<T> {
+        private final Map<ResourceLocation, T> data;
+        private final boolean validated;
+        private final ReloadStats stats;
+        private final Map<ResourceLocation, Fingerprinted<T>> fingerprinted;
+        @Nullable
+        private final RegistryAccess registryAccess;
+        private final DataManagerMetrics metrics;
+        private final List<Validator.Problem> problems;
+
+        private PreparedData(Map<ResourceLocation, T> data, boolean validated, ReloadStats stats, Map<ResourceLocation, Fingerprinted<T>> fingerprinted, @Nullable RegistryAccess registryAccess, DataManagerMetrics metrics, List<Validator.Problem> problems) {
+            this.data = data;
+            this.validated = validated;
+            this.stats = stats;
+            this.fingerprinted = fingerprinted;
+            this.registryAccess = registryAccess;
+            this.metrics = metrics;
+            this.problems = problems;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    // collects measurements on the reload thread before they are published as DataManagerMetrics
+    private static final class LoadMetrics {
+        private int failures;
+        private long inputBytes;
+        private long decodeNanos;
+        private List<DataManagerMetrics.EntryTiming> slowestEntries = List.of();
+        private long deduplicated;
     }
 
-    private DynamicOps<JsonElement> getOps() {
-        return this.useRegistryOps ? RegistryOps.create(JsonOps.INSTANCE, RegistryAccessGetter.getRegistryAccess()) : JsonOps.INSTANCE;
+    /**
+     * Counters of the last reload of a data manager.
+     *
+     * @param reused  the number of unchanged entries whose previously decoded value was kept.
+     * @param decoded the number of entries that were decoded.
+     * @param removed the number of previously loaded entries whose file no longer exists.
+     */
+    public record ReloadStats(int reused, int decoded, int removed) {
+        public static final ReloadStats EMPTY = new ReloadStats(0, 0, 0);
     }
 
+    private record Fingerprinted<T>(HashCode fingerprint, T value) {}
+
+    private record Delta<T>(int baseVersion, int version, Map<ResourceLocation, T> changed, List<ResourceLocation> removed) {
+        private static <T> Codec<Delta<T>> codec(Codec<Map<ResourceLocation, T>> networkCodec) {
+            return RecordCodecBuilder.<Delta<T>>create(instance -> instance.group(
+                    Codec.INT.fieldOf("base_version").forGetter(Delta::baseVersion),
+                    Codec.INT.fieldOf("version").forGetter(Delta::version),
+                    networkCodec.fieldOf("changed").forGetter(Delta::changed),
+                    ResourceLocation.CODEC.listOf().fieldOf("removed").forGetter(Delta::removed)
+            ).apply(instance, Delta::new));
+        }
+
+        private static <T> BufferCodec<Delta<T>> bufferCodec(BufferCodec<Map<ResourceLocation, T>> networkBufferCodec) {
+            BufferCodec<List<ResourceLocation>> removedCodec = BufferCodec.RESOURCE_LOCATION.listOf();
+            return new BufferCodec<>((buf, delta) -> {
+                buf.writeVarInt(delta.baseVersion());
+                buf.writeVarInt(delta.version());
+                networkBufferCodec.write(buf, delta.changed());
+                removedCodec.write(buf, delta.removed());
+            }, buf -> new Delta<>(buf.readVarInt(), buf.readVarInt(), networkBufferCodec.read(buf), removedCodec.read(buf)));
+        }
+    }
+
+    private record StringIndex<T>(Map<ResourceLocation, T> data, Map<String, T> values) {
+        private static <T> StringIndex<T> of(Map<ResourceLocation, T> data) {
+            Map<String, T> values = new HashMap<>(Math.max(16, (int) (data.size() / 0.75f) + 1));
+            data.forEach((key, value) -> values.put(key.toString(), value));
+            return new StringIndex<>(data, values);
+        }
+    }
+
+    private record Streamed<T>(ResourceLocation file, ResourceLocation key, long size, @Nullable HashCode fingerprint, @Nullable T reused, @Nullable DataResult<T> decoded, @Nullable Exception exception, long decodeNanos) {}
+
+    private record Received<T>(boolean full, int version, @Nullable Map<ResourceLocation, T> data, @Nullable Map<ResourceLocation, T> base) {}
+
+    // entries are encoded with the network codec or the buffer codec, both results compare by value
+    private record EncodedVersion<T>(int version, Map<ResourceLocation, Object> entries, @Nullable Delta<T> delta) {}
+
     public final class SyncPacket extends CodecPacket<Map<ResourceLocation, T>> {
-        private SyncPacket(Map<ResourceLocation, T> data) {
+        private final int version;
+
+        private SyncPacket(Map<ResourceLocation, T> data, int version) {
             super(data);
+            this.version = version;
         }
 
         public SyncPacket(FriendlyByteBuf buffer) {
             super(buffer);
+            this.version = buffer.readVarInt();
+        }
+
+        private SyncPacket(byte[] undecoded) {
+            super(undecoded);
+            this.version = -1;
+        }
+
+        @Override
+        protected void encode(FriendlyByteBuf buf) {
+            super.encode(buf);
+            buf.writeVarInt(this.version);
         }
 
         @Override
@@ -275,9 +1610,15 @@ public class CodecDataManager<T> extends SimpleJsonResourceReloadListener implem
             return getDataManager(id()).networkCodec;
         }
 
+        @Nullable
+        @Override
+        protected BufferCodec<Map<ResourceLocation, T>> bufferCodec() {
+            return getDataManager(id()).networkBufferCodec;
+        }
+
         @Override
         protected DynamicOps<Tag> ops() {
-            return getDataManager(id()).useRegistryOps ? RegistryOps.create(super.ops(), RegistryAccessGetter.getRegistryAccess()) : super.ops();
+            return getDataManager(id()).getNetworkOps();
         }
 
         @SuppressWarnings("unchecked")
@@ -286,4 +1627,61 @@ public class CodecDataManager<T> extends SimpleJsonResourceReloadListener implem
         }
     }
 
+    private final class DeltaPacket extends CodecPacket<Delta<T>> {
+        private DeltaPacket(Delta<T> delta) {
+            super(delta);
+        }
+
+        private DeltaPacket(FriendlyByteBuf buffer) {
+            super(buffer);
+        }
+
+        private DeltaPacket(byte[] undecoded) {
+            super(undecoded);
+        }
+
+        @Override
+        public ResourceLocation id() {
+            return CodecDataManager.this.deltaId;
+        }
+
+        @Override
+        protected Codec<Delta<T>> codec() {
+            return CodecDataManager.this.deltaCodec;
+        }
+
+        @Nullable
+        @Override
+        protected BufferCodec<Delta<T>> bufferCodec() {
+            return CodecDataManager.this.deltaBufferCodec;
+        }
+
+        @Override
+        protected DynamicOps<Tag> ops() {
+            return getNetworkOps();
+        }
+    }
+
+    private final class AckPacket implements CustomPacketPayload {
+        private final int version;
+
+        private AckPacket(int version) {
+            this.version = version;
+        }
+
+        private AckPacket(FriendlyByteBuf buffer) {
+            this.version = buffer.readVarInt();
+        }
+
+        @Override
+        public void write(FriendlyByteBuf buf) {
+            buf.writeVarInt(this.version);
+        }
+
+        @Override
+        public ResourceLocation id() {
+            return CodecDataManager.this.ackId;
+        }
+    }
+
 }
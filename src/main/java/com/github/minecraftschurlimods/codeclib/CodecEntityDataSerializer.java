@@ -1,33 +1,257 @@
 package com.github.minecraftschurlimods.codeclib;
 
 import com.mojang.serialization.Codec;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.syncher.EntityDataAccessor;
 import net.minecraft.network.syncher.EntityDataSerializer;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
- * Convenience wrapper for serializing entity data with a codec.
+ * Convenience wrapper for serializing entity data with a codec.<br>
+ * By default values are written as nbt and copied by encoding and decoding them again,
+ * use {@link #withBufferCodec(BufferCodec)} and {@link #withCopy(UnaryOperator)} or {@link #withAutoCopy()} for cheaper alternatives.<br>
+ * Serializers compare by identity, like the serializers registered for entity data, and copies made with the {@code with} methods share their {@link #counters()}.
  */
-public record CodecEntityDataSerializer<T>(Codec<T> codec, Consumer<String> errorConsumer) implements EntityDataSerializer<T> {
+public final class CodecEntityDataSerializer<T> implements EntityDataSerializer<T> {
+    private static final ClassValue<Boolean> IMMUTABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isImmutable(type, new HashSet<>());
+        }
+    };
+    private final Codec<T> codec;
+    private final Consumer<String> errorConsumer;
+    @Nullable
+    private final BufferCodec<T> bufferCodec;
+    private final UnaryOperator<T> copier;
+    private final Counters counters;
 
     public CodecEntityDataSerializer(Codec<T> codec) {
         this(codec, s -> {});
     }
 
+    public CodecEntityDataSerializer(Codec<T> codec, Consumer<String> errorConsumer) {
+        this(codec, errorConsumer, null, roundTripCopy(codec, errorConsumer), new Counters());
+    }
+
+    private CodecEntityDataSerializer(Codec<T> codec, Consumer<String> errorConsumer, @Nullable BufferCodec<T> bufferCodec, UnaryOperator<T> copier, Counters counters) {
+        this.codec = codec;
+        this.errorConsumer = errorConsumer;
+        this.bufferCodec = bufferCodec;
+        this.copier = copier;
+        this.counters = counters;
+    }
+
+    public Codec<T> codec() {
+        return this.codec;
+    }
+
+    public Consumer<String> errorConsumer() {
+        return this.errorConsumer;
+    }
+
+    /**
+     * @return The buffer codec used to write values without building a tag, or {@code null} if values are written as nbt.
+     */
+    @Nullable
+    public BufferCodec<T> bufferCodec() {
+        return this.bufferCodec;
+    }
+
+    /**
+     * @return The function creating the copies handed out by {@link #copy(Object)}.
+     */
+    public UnaryOperator<T> copier() {
+        return this.copier;
+    }
+
+    /**
+     * @return The counters of the values written and suppressed by this serializer.
+     */
+    public Counters counters() {
+        return this.counters;
+    }
+
+    /**
+     * @return A copy of this serializer writing values with the given buffer codec instead of as nbt.
+     */
+    public CodecEntityDataSerializer<T> withBufferCodec(BufferCodec<T> bufferCodec) {
+        return new CodecEntityDataSerializer<>(this.codec, this.errorConsumer, bufferCodec, this.copier, this.counters);
+    }
+
+    /**
+     * @param copier the function creating copies of values, must return a value that is not affected by changes to the given value.
+     * @return A copy of this serializer using the given function for {@link #copy(Object)}.
+     */
+    public CodecEntityDataSerializer<T> withCopy(UnaryOperator<T> copier) {
+        return new CodecEntityDataSerializer<>(this.codec, this.errorConsumer, this.bufferCodec, copier, this.counters);
+    }
+
+    /**
+     * Hand out values themselves instead of copies, for values that can never be modified.
+     *
+     * @return A copy of this serializer not copying values.
+     */
+    public CodecEntityDataSerializer<T> withIdentityCopy() {
+        return withCopy(UnaryOperator.identity());
+    }
+
+    /**
+     * Hand out values themselves if they are immutable, and copies made with the codec otherwise.<br>
+     * Values count as immutable if they are primitives, strings, enums, ids or records with only such components.
+     *
+     * @return A copy of this serializer deriving how to copy values from their class.
+     */
+    public CodecEntityDataSerializer<T> withAutoCopy() {
+        UnaryOperator<T> roundTrip = roundTripCopy(this.codec, this.errorConsumer);
+        return withCopy(value -> value == null || IMMUTABLE.get(value.getClass()) ? value : roundTrip.apply(value));
+    }
+
+    /**
+     * Set the entity data for the given accessor, unless the new value encodes to the same data as the current value.<br>
+     * {@link SynchedEntityData#set(EntityDataAccessor, Object)} only compares values with {@link Object#equals(Object)},
+     * so values without a structural equals would otherwise be sent again even if nothing changed.
+     * Unless the values are equal, every call encodes both the current and the new value, so this pays off for values that are set often but rarely change,
+     * and is more expensive than {@link SynchedEntityData#set(EntityDataAccessor, Object)} for values that change on most calls.
+     *
+     * @param entityData the entity data to update.
+     * @param accessor   the accessor of the value, which has to use this serializer.
+     * @param value      the new value.
+     * @return whether the value was set.
+     */
+    public boolean setIfChanged(SynchedEntityData entityData, EntityDataAccessor<T> accessor, T value) {
+        if (accessor.getSerializer() != this) throw new IllegalArgumentException("Entity data accessor %d does not use this serializer".formatted(accessor.getId()));
+        if (encodesEqual(entityData.get(accessor), value)) {
+            counters.suppressed.increment();
+            return false;
+        }
+        entityData.set(accessor, value);
+        return true;
+    }
+
+    /**
+     * Compare two values by their encoded form.<br>
+     * Values that fail to encode never count as equal, so updates to them are not dropped.
+     *
+     * @return whether both values encode to the same data.
+     */
+    public boolean encodesEqual(@Nullable T a, @Nullable T b) {
+        if (a == b || Objects.equals(a, b)) return true;
+        if (a == null || b == null) return false;
+        if (bufferCodec != null) {
+            try {
+                return Arrays.equals(encode(bufferCodec, a), encode(bufferCodec, b));
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+        Optional<Tag> encodedA = codec.encodeStart(NbtOps.INSTANCE, a).result();
+        if (encodedA.isEmpty()) return false;
+        return encodedA.equals(codec.encodeStart(NbtOps.INSTANCE, b).result());
+    }
+
+    private static <T> byte[] encode(BufferCodec<T> bufferCodec, T value) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            bufferCodec.write(buf, value);
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
     @Override
     public void write(final FriendlyByteBuf buffer, final T value) {
-        buffer.writeNbt(codec.encodeStart(NbtOps.INSTANCE, value).getOrThrow(false, errorConsumer));
+        int start = buffer.writerIndex();
+        if (bufferCodec != null) {
+            bufferCodec.write(buffer, value);
+        } else {
+            buffer.writeNbt(codec.encodeStart(NbtOps.INSTANCE, value).getOrThrow(false, errorConsumer));
+        }
+        counters.writes.increment();
+        counters.bytesWritten.add(buffer.writerIndex() - start);
     }
 
     @Override
     public T read(final FriendlyByteBuf buffer) {
+        if (bufferCodec != null) return bufferCodec.read(buffer);
         return codec.decode(NbtOps.INSTANCE, buffer.readNbt()).getOrThrow(false, errorConsumer).getFirst();
     }
 
     @Override
     public T copy(final T value) {
-        return codec.encodeStart(NbtOps.INSTANCE, value).flatMap(tag -> codec.decode(NbtOps.INSTANCE, tag)).getOrThrow(false, errorConsumer).getFirst();
+        return copier.apply(value);
+    }
+
+    private static <T> UnaryOperator<T> roundTripCopy(Codec<T> codec, Consumer<String> errorConsumer) {
+        return value -> codec.encodeStart(NbtOps.INSTANCE, value).flatMap(tag -> codec.decode(NbtOps.INSTANCE, tag)).getOrThrow(false, errorConsumer).getFirst();
+    }
+
+    private static boolean isImmutable(Class<?> type, Set<Class<?>> visiting) {
+        if (type.isPrimitive() || type.isEnum() || type == String.class || type == UUID.class || type == ResourceLocation.class || type == ResourceKey.class) return true;
+        if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class || type == Character.class || type == Boolean.class || type == Float.class || type == Double.class) return true;
+        if (type.getSuperclass() != null && type.getSuperclass().isEnum()) return true; // enum constants with a body
+        if (!type.isRecord()) return false;
+        if (!visiting.add(type)) return true; // self-referencing records are immutable if their other components are
+        for (RecordComponent component : type.getRecordComponents()) {
+            if (!isImmutable(component.getType(), visiting)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counters of a {@link CodecEntityDataSerializer}, safe to read from any thread.
+     */
+    public static final class Counters {
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * @return The number of values written to the network.
+         */
+        public long writes() {
+            return writes.sum();
+        }
+
+        /**
+         * @return The number of bytes written to the network.
+         */
+        public long bytesWritten() {
+            return bytesWritten.sum();
+        }
+
+        /**
+         * @return The number of updates skipped by {@link CodecEntityDataSerializer#setIfChanged(SynchedEntityData, EntityDataAccessor, Object)} because the value did not change.
+         */
+        public long suppressed() {
+            return suppressed.sum();
+        }
+
+        /**
+         * @return The estimated number of bytes saved by suppressed updates, based on the average size of written values.
+         */
+        public long estimatedBytesSaved() {
+            long writes = writes();
+            return writes == 0 ? 0 : bytesWritten() * suppressed() / writes;
+        }
     }
 }
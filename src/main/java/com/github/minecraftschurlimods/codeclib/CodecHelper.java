@@ -1,26 +1,41 @@
 package com.github.minecraftschurlimods.codeclib;
 
 import com.google.common.collect.ImmutableSet;
+import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Pair;
-import com.mojang.datafixers.util.Unit;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.ListBuilder;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import net.minecraft.advancements.critereon.EntityPredicate;
 import net.minecraft.advancements.critereon.MinMaxBounds;
 import net.minecraft.core.Registry;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.ComponentSerialization;
 import net.minecraft.util.ExtraCodecs;
+import net.minecraft.util.StringRepresentable;
 import net.minecraft.world.item.crafting.Ingredient;
-import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 public final class CodecHelper {
     @Deprecated(forRemoval = true)
@@ -36,58 +51,86 @@ public final class CodecHelper {
     @Deprecated(forRemoval = true)
     public static final Codec<MinMaxBounds.Doubles> DOUBLE_MIN_MAX_BOUNDS = MinMaxBounds.Doubles.CODEC;
 
+    private static final Codec<IntSet> INT_SET = Codec.INT_STREAM.xmap(stream -> {
+        int[] values = stream.toArray();
+        if (values.length == 0) return IntSets.emptySet();
+        if (values.length == 1) return IntSets.singleton(values[0]);
+        return IntSets.unmodifiable(new IntOpenHashSet(values));
+    }, set -> Arrays.stream(set.toIntArray()));
+
+    private static final Codec<LongSet> LONG_SET = Codec.LONG_STREAM.xmap(stream -> {
+        long[] values = stream.toArray();
+        if (values.length == 0) return LongSets.emptySet();
+        if (values.length == 1) return LongSets.singleton(values[0]);
+        return LongSets.unmodifiable(new LongOpenHashSet(values));
+    }, set -> Arrays.stream(set.toLongArray()));
+
     @Deprecated(forRemoval = true)
     public static <T> Codec<T> forRegistry(Supplier<Registry<T>> registrySupplier) {
         return registrySupplier.get().byNameCodec();
     }
 
-    @Contract("_ -> new")
+    /**
+     * @return A codec for the given enum, using the names of the constants.
+     */
     public static <E extends Enum<E>> Codec<E> forStringEnum(Class<E> clazz) {
-        return Codec.STRING.xmap(s -> Enum.valueOf(clazz, s), Enum::name);
+        return EnumCodecs.of(clazz).byName;
+    }
+
+    /**
+     * @return A codec for the given enum, using the names of the constants and ignoring their case when decoding.
+     */
+    public static <E extends Enum<E>> Codec<E> forStringEnumIgnoreCase(Class<E> clazz) {
+        return EnumCodecs.of(clazz).byNameIgnoreCase;
+    }
+
+    /**
+     * @return A codec for the given enum, using the {@link StringRepresentable#getSerializedName() serialized names} of the constants.
+     */
+    public static <E extends Enum<E> & StringRepresentable> Codec<E> forRepresentableEnum(Class<E> clazz) {
+        return EnumCodecs.of(clazz).bySerializedName();
     }
 
-    @Contract("_ -> new")
+    /**
+     * @return A codec for the given enum, using the ordinals of the constants stored in the smallest fitting integer type.
+     */
     public static <E extends Enum<E>> Codec<E> forIntEnum(Class<E> clazz) {
-        E[] enumConstants = clazz.getEnumConstants();
-        int size = enumConstants.length;
-        if (size < Byte.MAX_VALUE) {
-            return Codec.BYTE.xmap(i -> enumConstants[i], e -> (byte) e.ordinal());
-        }
-        if (size < Short.MAX_VALUE) {
-            return Codec.SHORT.xmap(i -> enumConstants[i], e -> (short) e.ordinal());
-        }
-        return Codec.INT.xmap(i -> enumConstants[i], Enum::ordinal);
+        return EnumCodecs.of(clazz).byOrdinal;
     }
 
-    @Contract("_ -> new")
+    /**
+     * @return A codec for the given enum, using the names of the constants or their ordinals in compressed formats.
+     */
     public static <E extends Enum<E>> Codec<E> forEnum(Class<E> clazz) {
-        return ExtraCodecs.orCompressed(forStringEnum(clazz), forIntEnum(clazz));
+        return EnumCodecs.of(clazz).compressed;
     }
 
     public static <T> Codec<Set<T>> setOf(Codec<T> codec) {
         return new SetCodec<>(codec);
     }
 
+    /**
+     * @return A codec for sets of ints, stored as int list.
+     */
+    public static Codec<IntSet> intSet() {
+        return INT_SET;
+    }
+
+    /**
+     * @return A codec for sets of longs, stored as long list.
+     */
+    public static Codec<LongSet> longSet() {
+        return LONG_SET;
+    }
+
     private record SetCodec<T>(Codec<T> elementCodec) implements Codec<Set<T>> {
 
         @Override
         public <T1> DataResult<Pair<Set<T>, T1>> decode(DynamicOps<T1> ops, T1 input) {
             return ops.getList(input).setLifecycle(Lifecycle.stable()).flatMap(stream -> {
-                final ImmutableSet.Builder<T> read = ImmutableSet.builder();
-                final Stream.Builder<T1> failed = Stream.builder();
-                final AtomicReference<DataResult<Unit>> result = new AtomicReference<>(DataResult.success(Unit.INSTANCE, Lifecycle.stable()));
-
-                stream.accept(t -> {
-                    final DataResult<Pair<T, T1>> element = elementCodec.decode(ops, t);
-                    element.error().ifPresent(e -> failed.add(t));
-                    result.set(result.get().apply2stable((r, v) -> {
-                        read.add(v.getFirst());
-                        return r;
-                    }, element));
-                });
-
-                final Pair<Set<T>, T1> pair = Pair.of(read.build(), ops.createList(failed.build()));
-                return result.get().map(unit -> pair).setPartial(pair);
+                final Decoder<T, T1> decoder = new Decoder<>(elementCodec, ops);
+                stream.accept(decoder);
+                return decoder.result();
             });
         }
 
@@ -105,4 +148,119 @@ public final class CodecHelper {
             return "SetCodec[" + elementCodec + ']';
         }
     }
+
+    // collects the elements in a single pass instead of chaining a DataResult per element
+    private static final class Decoder<T, T1> implements Consumer<T1> {
+        private final Codec<T> elementCodec;
+        private final DynamicOps<T1> ops;
+        private final List<T> read = new ArrayList<>();
+        @Nullable
+        private List<T1> failed;
+        @Nullable
+        private StringJoiner errors;
+
+        private Decoder(Codec<T> elementCodec, DynamicOps<T1> ops) {
+            this.elementCodec = elementCodec;
+            this.ops = ops;
+        }
+
+        @Override
+        public void accept(T1 input) {
+            Either<Pair<T, T1>, DataResult.PartialResult<Pair<T, T1>>> element = elementCodec.decode(ops, input).get();
+            Optional<Pair<T, T1>> value = element.left();
+            if (value.isPresent()) {
+                read.add(value.get().getFirst());
+                return;
+            }
+            DataResult.PartialResult<Pair<T, T1>> error = element.right().orElseThrow();
+            error.partialResult().ifPresent(partial -> read.add(partial.getFirst()));
+            if (failed == null) {
+                failed = new ArrayList<>();
+                errors = new StringJoiner("; ");
+            }
+            failed.add(input);
+            errors.add(error.message());
+        }
+
+        private DataResult<Pair<Set<T>, T1>> result() {
+            Set<T> set = ImmutableSet.copyOf(read); // empty and singleton sets do not allocate a hash table
+            if (failed == null) return DataResult.success(Pair.of(set, ops.emptyList()), Lifecycle.stable());
+            Pair<Set<T>, T1> pair = Pair.of(set, ops.createList(failed.stream()));
+            String message = errors.toString();
+            return DataResult.error(() -> message, pair, Lifecycle.stable());
+        }
+    }
+
+    // lookup tables and codecs for a single enum class, built once per class
+    private static final class EnumCodecs<E extends Enum<E>> {
+        private static final ClassValue<EnumCodecs<?>> CACHE = new ClassValue<>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            protected EnumCodecs<?> computeValue(Class<?> type) {
+                return new EnumCodecs(type);
+            }
+        };
+        private final Class<E> clazz;
+        private final E[] constants;
+        private final Codec<E> byName;
+        private final Codec<E> byNameIgnoreCase;
+        private final Codec<E> byOrdinal;
+        private final Codec<E> compressed;
+        @Nullable
+        private volatile Codec<E> bySerializedName;
+
+        private EnumCodecs(Class<E> clazz) {
+            this.clazz = clazz;
+            this.constants = clazz.getEnumConstants();
+            Map<String, E> byName = new HashMap<>();
+            Map<String, E> byLowerCaseName = new HashMap<>();
+            for (E constant : this.constants) {
+                byName.put(constant.name(), constant);
+                byLowerCaseName.putIfAbsent(constant.name().toLowerCase(Locale.ROOT), constant);
+            }
+            this.byName = lookup(byName, Function.identity(), Enum::name);
+            this.byNameIgnoreCase = lookup(byLowerCaseName, name -> name.toLowerCase(Locale.ROOT), Enum::name);
+            int size = this.constants.length;
+            if (size < Byte.MAX_VALUE) {
+                this.byOrdinal = Codec.BYTE.comapFlatMap(i -> byOrdinal(i), e -> (byte) e.ordinal());
+            } else if (size < Short.MAX_VALUE) {
+                this.byOrdinal = Codec.SHORT.comapFlatMap(i -> byOrdinal(i), e -> (short) e.ordinal());
+            } else {
+                this.byOrdinal = Codec.INT.comapFlatMap(this::byOrdinal, Enum::ordinal);
+            }
+            this.compressed = ExtraCodecs.orCompressed(this.byName, this.byOrdinal);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E extends Enum<E>> EnumCodecs<E> of(Class<E> clazz) {
+            return (EnumCodecs<E>) CACHE.get(clazz);
+        }
+
+        private Codec<E> lookup(Map<String, E> table, Function<String, String> normalizer, Function<E, String> encoder) {
+            Map<String, E> copy = Map.copyOf(table);
+            return Codec.STRING.comapFlatMap(name -> {
+                E constant = copy.get(normalizer.apply(name));
+                return constant != null ? DataResult.success(constant) : DataResult.error(() -> "Unknown %s: %s".formatted(this.clazz.getSimpleName(), name));
+            }, encoder);
+        }
+
+        private DataResult<E> byOrdinal(int ordinal) {
+            if (ordinal >= 0 && ordinal < this.constants.length) return DataResult.success(this.constants[ordinal]);
+            return DataResult.error(() -> "Unknown %s ordinal: %d".formatted(this.clazz.getSimpleName(), ordinal));
+        }
+
+        // only available for StringRepresentable enums, so it is built on first use
+        private Codec<E> bySerializedName() {
+            Codec<E> codec = this.bySerializedName;
+            if (codec == null) {
+                Map<String, E> table = new HashMap<>();
+                for (E constant : this.constants) {
+                    table.put(((StringRepresentable) constant).getSerializedName(), constant);
+                }
+                codec = lookup(table, Function.identity(), e -> ((StringRepresentable) e).getSerializedName());
+                this.bySerializedName = codec;
+            }
+            return codec;
+        }
+    }
 }
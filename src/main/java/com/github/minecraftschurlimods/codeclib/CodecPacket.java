@@ -2,10 +2,12 @@ package com.github.minecraftschurlimods.codeclib;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DynamicOps;
+import io.netty.buffer.Unpooled;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Abstract base class for a Packet using a codec to encode and decode the data.
@@ -14,6 +16,7 @@ import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
  */
 public abstract class CodecPacket<T> implements CustomPacketPayload {
     protected final T data;
+    private volatile byte @Nullable [] encoded;
 
     /**
      * Constructor accepting the data to send.
@@ -29,12 +32,73 @@ public abstract class CodecPacket<T> implements CustomPacketPayload {
      * Subclasses must have this constructor present.
      */
     public CodecPacket(FriendlyByteBuf buf) {
-        this.data = buf.readWithCodecTrusted(this.ops(), this.codec());
+        BufferCodec<T> bufferCodec = this.bufferCodec();
+        this.data = bufferCodec != null ? bufferCodec.read(buf) : buf.readWithCodecTrusted(this.ops(), this.codec());
+    }
+
+    /**
+     * Constructor keeping the received bytes without decoding them, for decoding them later on another thread.<br>
+     * The data of such a packet is {@code null}.
+     */
+    CodecPacket(byte[] undecoded) {
+        this.data = null;
+        this.encoded = undecoded;
     }
 
     @Override
     public void write(FriendlyByteBuf buf) {
-        buf.writeWithCodec(this.ops(), this.codec(), this.data);
+        byte[] encoded = this.encoded;
+        if (encoded != null) {
+            buf.writeBytes(encoded);
+        } else {
+            this.encode(buf);
+        }
+    }
+
+    /**
+     * Encode this packet once and reuse the encoded bytes for every following write.<br>
+     * Use this when the same packet is sent to many connections.
+     */
+    public final void encodeOnce() {
+        if (this.encoded != null) return;
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            this.encode(buf);
+            this.encoded = readRemaining(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * @return The remaining bytes of the given buffer.
+     */
+    static byte[] readRemaining(FriendlyByteBuf buf) {
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        return bytes;
+    }
+
+    boolean isDecoded() {
+        return this.data != null;
+    }
+
+    byte[] encodedBytes() {
+        this.encodeOnce();
+        return this.encoded;
+    }
+
+    /**
+     * Encode the data of this packet into the given buffer.<br>
+     * Override this method instead of {@link #write(FriendlyByteBuf)} to write additional data.
+     */
+    protected void encode(FriendlyByteBuf buf) {
+        BufferCodec<T> bufferCodec = this.bufferCodec();
+        if (bufferCodec != null) {
+            bufferCodec.write(buf, this.data);
+        } else {
+            buf.writeWithCodec(this.ops(), this.codec(), this.data);
+        }
     }
 
     /**
@@ -44,6 +108,16 @@ public abstract class CodecPacket<T> implements CustomPacketPayload {
      */
     protected abstract Codec<T> codec();
 
+    /**
+     * Override this method to write and read the data directly with the buffer instead of going through {@link #codec()} and an intermediate tag tree.
+     *
+     * @return the buffer codec to encode and decode the data, or {@code null} to use {@link #codec()}.
+     */
+    @Nullable
+    protected BufferCodec<T> bufferCodec() {
+        return null;
+    }
+
     protected DynamicOps<Tag> ops() {
         return NbtOps.INSTANCE;
     }
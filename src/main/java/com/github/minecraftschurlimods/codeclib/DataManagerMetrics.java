@@ -0,0 +1,75 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.List;
+
+/**
+ * Measurements of the last reload and sync of a data manager.<br>
+ * Times are in nanoseconds and sizes in bytes. Values that were not measured yet are {@code 0}.
+ *
+ * @param entries          the number of entries loaded by the last reload.
+ * @param failures         the number of files that could not be parsed or decoded during the last reload.
+ * @param inputBytes       the size of all data files read during the last reload.
+ * @param decodeNanos      the time spent decoding the data, or reading it from the disk cache.
+ * @param validationNanos  the time spent running the validator.
+ * @param slowestEntries   the entries that took the longest to decode, slowest first.
+ * @param syncPayloadBytes the size of the full sync payload sent to clients.
+ * @param syncEncodeNanos  the time spent encoding the full sync payload.
+ * @param deduplicated     the number of entries of this data manager replaced by an equal entry during the last reload, see {@link ValueInterner}. Sub-values interned by wrapped codecs are counted by {@link ValueInterner#deduplicated()}.
+ */
+public record DataManagerMetrics(int entries, int failures, long inputBytes, long decodeNanos, long validationNanos, List<EntryTiming> slowestEntries, long syncPayloadBytes, long syncEncodeNanos, long deduplicated) {
+    public static final DataManagerMetrics EMPTY = new DataManagerMetrics(0, 0, 0, 0, 0, List.of(), 0, 0, 0);
+
+    public DataManagerMetrics {
+        slowestEntries = List.copyOf(slowestEntries);
+    }
+
+    /**
+     * @return A copy of these metrics with the given validation time and the number of entries left after validation.
+     */
+    public DataManagerMetrics withValidation(int entries, long validationNanos) {
+        return new DataManagerMetrics(entries, this.failures, this.inputBytes, this.decodeNanos, validationNanos, this.slowestEntries, this.syncPayloadBytes, this.syncEncodeNanos, this.deduplicated);
+    }
+
+    /**
+     * @return A copy of these metrics with the given sync payload size and encode time.
+     */
+    public DataManagerMetrics withSync(long syncPayloadBytes, long syncEncodeNanos) {
+        return new DataManagerMetrics(this.entries, this.failures, this.inputBytes, this.decodeNanos, this.validationNanos, this.slowestEntries, syncPayloadBytes, syncEncodeNanos, this.deduplicated);
+    }
+
+    /**
+     * @return These metrics as a json object.
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("entries", this.entries);
+        json.addProperty("failures", this.failures);
+        json.addProperty("input_bytes", this.inputBytes);
+        json.addProperty("decode_nanos", this.decodeNanos);
+        json.addProperty("validation_nanos", this.validationNanos);
+        JsonArray slowest = new JsonArray();
+        for (EntryTiming timing : this.slowestEntries) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("id", timing.id().toString());
+            entry.addProperty("decode_nanos", timing.decodeNanos());
+            slowest.add(entry);
+        }
+        json.add("slowest_entries", slowest);
+        json.addProperty("sync_payload_bytes", this.syncPayloadBytes);
+        json.addProperty("sync_encode_nanos", this.syncEncodeNanos);
+        json.addProperty("deduplicated", this.deduplicated);
+        return json;
+    }
+
+    /**
+     * The decode time of a single entry.
+     *
+     * @param id          the id of the entry.
+     * @param decodeNanos the time spent decoding the entry.
+     */
+    public record EntryTiming(ResourceLocation id, long decodeNanos) {}
+}
@@ -0,0 +1,143 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DynamicOps;
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file caching the decoded data of a data manager, keyed by a fingerprint of its input files and a user supplied version.<br>
+ * Codecs cannot be compared across runs, so the version is the only identity of the codecs.
+ */
+final class DiskCache<T> {
+    private static final int MAGIC = 0x43444331; // CDC1, change when the file layout changes
+    private static final int HEADER_SIZE = 4 + 16 + 4 + 8;
+    private final Path file;
+    private final String version;
+    private final Codec<Map<ResourceLocation, T>> codec;
+    @Nullable
+    private final BufferCodec<Map<ResourceLocation, T>> bufferCodec;
+    private final Logger logger;
+
+    DiskCache(Path file, String version, Codec<T> elementCodec, @Nullable BufferCodec<T> bufferCodec, Logger logger) {
+        this.file = file;
+        this.codec = Codec.unboundedMap(ResourceLocation.CODEC, elementCodec);
+        this.bufferCodec = bufferCodec != null ? BufferCodec.mapOf(BufferCodec.RESOURCE_LOCATION, bufferCodec) : null;
+        this.version = version;
+        this.logger = logger;
+    }
+
+    /**
+     * Combine the fingerprints of all input files with the version of this cache.
+     *
+     * @param fingerprints the fingerprints of the input files.
+     * @return the fingerprint identifying the cached data.
+     */
+    HashCode fingerprint(Map<ResourceLocation, HashCode> fingerprints) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putString(this.version, StandardCharsets.UTF_8);
+        hasher.putBoolean(this.bufferCodec != null); // switching between nbt and the buffer codec changes the file format
+        new TreeMap<>(fingerprints).forEach((key, fingerprint) -> {
+            hasher.putString(key.toString(), StandardCharsets.UTF_8);
+            hasher.putBytes(fingerprint.asBytes());
+        });
+        return hasher.hash();
+    }
+
+    /**
+     * Read the cached data if the file exists and matches the given fingerprint.
+     *
+     * @return the cached data, or {@code null} if there is no valid cache for the fingerprint.
+     */
+    @Nullable
+    Map<ResourceLocation, T> read(HashCode fingerprint, @Nullable RegistryAccess registryAccess) {
+        if (!Files.isRegularFile(this.file)) return null;
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            if (header.hasRemaining()) return null;
+            header.flip();
+            if (header.getInt() != MAGIC) return null;
+            byte[] storedFingerprint = new byte[16];
+            header.get(storedFingerprint);
+            if (!Arrays.equals(storedFingerprint, fingerprint.asBytes())) return null;
+            int length = header.getInt();
+            long checksum = header.getLong();
+            if (length < 0 || HEADER_SIZE + (long) length != channel.size()) throw new IOException("Unexpected file size");
+            // only the payload of a matching cache gets mapped, so stale files can still be replaced on every platform
+            MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) throw new IOException("Checksum mismatch");
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(payload));
+            return this.bufferCodec != null ? this.bufferCodec.read(buf) : buf.readWithCodecTrusted(ops(registryAccess), this.codec);
+        } catch (IOException | RuntimeException e) {
+            this.logger.warn("Ignoring invalid data cache {}", this.file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replace the cache file with the given data.
+     */
+    void write(HashCode fingerprint, Map<ResourceLocation, T> data, @Nullable RegistryAccess registryAccess) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            if (this.bufferCodec != null) {
+                this.bufferCodec.write(buf, data);
+            } else {
+                buf.writeWithCodec(ops(registryAccess), this.codec, data);
+            }
+            ByteBuffer payload = buf.nioBuffer();
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .put(fingerprint.asBytes())
+                    .putInt(payload.remaining())
+                    .putLong(crc.getValue())
+                    .flip();
+            Files.createDirectories(this.file.getParent());
+            Path tmp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (payload.hasRemaining()) {
+                    channel.write(payload);
+                }
+            }
+            Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            this.logger.warn("Failed to write data cache {}", this.file, e);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static DynamicOps<Tag> ops(@Nullable RegistryAccess registryAccess) {
+        return RegistryOpsCache.nbt(registryAccess);
+    }
+}
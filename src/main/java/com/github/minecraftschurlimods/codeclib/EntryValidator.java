@@ -0,0 +1,43 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.mojang.serialization.DataResult;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.function.Predicate;
+
+/**
+ * Validator for a single entry of a data manager.<br>
+ * Entry validators run concurrently for different entries, so they must not depend on other entries or the data manager itself.
+ * Entries failing validation are removed from the data, without affecting the other entries.
+ *
+ * @param <T> the type of the entries.
+ */
+@FunctionalInterface
+public interface EntryValidator<T> {
+    /**
+     * Validate a single entry.
+     *
+     * @param id    the id of the entry.
+     * @param value the value of the entry.
+     * @return the value to keep, which may differ from the given value, or an error to reject the entry.
+     */
+    DataResult<T> validate(ResourceLocation id, T value);
+
+    /**
+     * Create an entry validator rejecting all entries not matching the given predicate.
+     *
+     * @param predicate the predicate the entries have to match.
+     * @param message   the error message for rejected entries.
+     * @return the entry validator.
+     */
+    static <T> EntryValidator<T> of(Predicate<? super T> predicate, String message) {
+        return (id, value) -> predicate.test(value) ? DataResult.success(value) : DataResult.error(() -> message);
+    }
+
+    /**
+     * @return An entry validator running this validator and then the given validator on the result.
+     */
+    default EntryValidator<T> and(EntryValidator<T> other) {
+        return (id, value) -> validate(id, value).flatMap(validated -> other.validate(id, validated));
+    }
+}
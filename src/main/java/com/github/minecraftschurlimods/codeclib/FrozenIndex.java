@@ -0,0 +1,164 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable, array backed map from {@link ResourceLocation} to values using open addressing with precomputed hashes.<br>
+ * Every entry also gets an integer id, which is its index in the sorted order of the keys.
+ * Ids are only valid for the index they were retrieved from.
+ *
+ * @param <T> the type of the values.
+ */
+public final class FrozenIndex<T> extends AbstractMap<ResourceLocation, T> {
+    private static final FrozenIndex<?> EMPTY = new FrozenIndex<>(new ResourceLocation[0], new Object[0]);
+    private final ResourceLocation[] keys;
+    private final Object[] values;
+    private final int[] hashes;
+    private final int[] table; // id + 1 of the entry in each slot, 0 for empty slots
+    private final int mask;
+    @Nullable
+    private Set<Entry<ResourceLocation, T>> entrySet;
+
+    private FrozenIndex(ResourceLocation[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.hashes = new int[keys.length];
+        int capacity = Integer.highestOneBit(Math.max(keys.length * 2, 2) - 1) << 1; // load factor of at most 0.5
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        for (int id = 0; id < keys.length; id++) {
+            int hash = hash(keys[id]);
+            this.hashes[id] = hash;
+            int slot = hash & this.mask;
+            while (this.table[slot] != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.table[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Create a frozen index containing the entries of the given map.
+     *
+     * @param map the map to copy.
+     * @return the frozen index, or the given map if it already is one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FrozenIndex<T> copyOf(Map<ResourceLocation, ? extends T> map) {
+        if (map instanceof FrozenIndex<?> index) return (FrozenIndex<T>) index;
+        if (map.isEmpty()) return (FrozenIndex<T>) EMPTY;
+        ResourceLocation[] keys = map.keySet().toArray(ResourceLocation[]::new);
+        Arrays.sort(keys);
+        Object[] values = new Object[keys.length];
+        for (int id = 0; id < keys.length; id++) {
+            values[id] = map.get(keys[id]);
+        }
+        return new FrozenIndex<>(keys, values);
+    }
+
+    /**
+     * Retrieve the id of the given key.
+     *
+     * @param key the key to get the id for.
+     * @return the id of the key, or {@code -1} if this index does not contain it.
+     */
+    public int idOf(@Nullable Object key) {
+        if (!(key instanceof ResourceLocation)) return -1;
+        int hash = hash(key);
+        for (int slot = hash & this.mask; ; slot = (slot + 1) & this.mask) {
+            int id = this.table[slot] - 1;
+            if (id < 0) return -1;
+            if (this.hashes[id] == hash && this.keys[id].equals(key)) return id;
+        }
+    }
+
+    /**
+     * Retrieve the value with the given id.
+     *
+     * @param id the id of the value.
+     * @return the value with the given id, or {@code null} if the id is out of range.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T getById(int id) {
+        return id >= 0 && id < this.values.length ? (T) this.values[id] : null;
+    }
+
+    /**
+     * Retrieve the key with the given id.
+     *
+     * @param id the id of the key.
+     * @return the key with the given id, or {@code null} if the id is out of range.
+     */
+    @Nullable
+    public ResourceLocation keyById(int id) {
+        return id >= 0 && id < this.keys.length ? this.keys[id] : null;
+    }
+
+    @Nullable
+    @Override
+    public T get(Object key) {
+        return getById(idOf(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return idOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return this.keys.length;
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<ResourceLocation, T>> entrySet() {
+        Set<Entry<ResourceLocation, T>> entrySet = this.entrySet;
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @NotNull
+                @Override
+                public Iterator<Entry<ResourceLocation, T>> iterator() {
+                    return new Iterator<>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.next < FrozenIndex.this.keys.length;
+                        }
+
+                        @Override
+                        public Entry<ResourceLocation, T> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int id = this.next++;
+                            return new SimpleImmutableEntry<>(FrozenIndex.this.keys[id], getById(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return FrozenIndex.this.keys.length;
+                }
+            };
+            this.entrySet = entrySet;
+        }
+        return entrySet;
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
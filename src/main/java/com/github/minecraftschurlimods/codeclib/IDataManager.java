@@ -26,6 +26,16 @@ public interface IDataManager<T> extends Map<ResourceLocation, T>, PreparableRel
      */
     ResourceLocation id();
 
+    /**
+     * Retrieve an immutable snapshot of the data currently loaded in this data manager.<br>
+     * Use this for iterations spanning several calls, the snapshot is not affected by reloads or syncs happening in the meantime.
+     *
+     * @return An immutable snapshot of the data of this data manager.
+     */
+    default Map<ResourceLocation, T> snapshot() {
+        return isLoaded() ? Map.copyOf(this) : Map.of();
+    }
+
     /**
      * Override to wrap, modify or replace the exception to throw.
      */
@@ -49,13 +59,23 @@ public interface IDataManager<T> extends Map<ResourceLocation, T>, PreparableRel
     @Override
     default T get(@Nullable Object id) {
         if (id == null) return null;
-        if (id instanceof CharSequence keyS) {
-            id = new ResourceLocation(keyS.toString());
-        }
+        if (id instanceof CharSequence keyS) return this.getByString(keyS);
         if (!(id instanceof ResourceLocation rl)) throw this.throwing(new ClassCastException());
         return this.get(rl);
     }
 
+    /**
+     * Retrieve the value with the given id from this data manager.
+     *
+     * @param id the string representation of the id of the data to get.
+     * @return The data with the given id.
+     */
+    @Nullable
+    default T getByString(@Nullable CharSequence id) {
+        if (id == null) return null;
+        return this.get(new ResourceLocation(id.toString()));
+    }
+
     /**
      * Retrieve the value with the given id from this data manager or throw an exception.
      *
@@ -0,0 +1,144 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Immutable map keeping the raw contents of data files and decoding each value on first access.<br>
+ * Decoded values are memoized, up to a maximum number of values if one is given. Values that fail to decode are treated as absent,
+ * so {@link #containsKey(Object)} decodes the value of the key, and {@link #size()} decodes every value the first time it is called.
+ *
+ * @param <T> the type of the values.
+ */
+final class LazyDataMap<T> extends AbstractMap<ResourceLocation, T> {
+    private final Map<ResourceLocation, byte[]> raw;
+    private final BiFunction<ResourceLocation, byte[], T> decoder;
+    private final Cache<ResourceLocation, T> decoded;
+    private final Set<ResourceLocation> failed = ConcurrentHashMap.newKeySet();
+    private volatile boolean decodedAll = false;
+    @Nullable
+    private Set<Entry<ResourceLocation, T>> entrySet;
+
+    /**
+     * @param raw        the raw contents of the data files by id.
+     * @param decoder    the function decoding a value, returning {@code null} if decoding failed.
+     * @param maxDecoded the maximum number of decoded values to keep, or {@code 0} to keep all of them.
+     */
+    LazyDataMap(Map<ResourceLocation, byte[]> raw, BiFunction<ResourceLocation, byte[], T> decoder, long maxDecoded) {
+        this.raw = Map.copyOf(raw);
+        this.decoder = decoder;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (maxDecoded > 0) {
+            builder.maximumSize(maxDecoded);
+        }
+        this.decoded = builder.build();
+    }
+
+    /**
+     * @return The number of data files, including those whose value fails to decode, without decoding any value.
+     */
+    int fileCount() {
+        return this.raw.size();
+    }
+
+    /**
+     * @return The number of values currently kept in decoded form.
+     */
+    long decodedCount() {
+        return this.decoded.size();
+    }
+
+    @Nullable
+    @Override
+    public T get(Object key) {
+        if (!(key instanceof ResourceLocation id)) return null;
+        byte[] bytes = this.raw.get(id);
+        if (bytes == null || this.failed.contains(id)) return null; // failures are kept outside the bounded cache, so they are decoded and logged once
+        T value = this.decoded.getIfPresent(id);
+        if (value == null) {
+            // concurrent first accesses may decode the same value twice, which is cheaper than blocking on a lock
+            value = this.decoder.apply(id, bytes);
+            if (value == null) {
+                this.failed.add(id);
+                return null;
+            }
+            this.decoded.put(id, value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        if (!this.decodedAll) {
+            // failures are only known after decoding, so the size has to decode every value once
+            for (ResourceLocation key : this.raw.keySet()) {
+                get(key);
+            }
+            this.decodedAll = true;
+        }
+        return this.raw.size() - this.failed.size();
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<ResourceLocation, T>> entrySet() {
+        Set<Entry<ResourceLocation, T>> entrySet = this.entrySet;
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @NotNull
+                @Override
+                public Iterator<Entry<ResourceLocation, T>> iterator() {
+                    Iterator<ResourceLocation> keys = LazyDataMap.this.raw.keySet().iterator();
+                    return new Iterator<>() {
+                        @Nullable
+                        private Entry<ResourceLocation, T> next;
+
+                        @Override
+                        public boolean hasNext() {
+                            while (this.next == null && keys.hasNext()) {
+                                ResourceLocation key = keys.next();
+                                T value = get(key);
+                                if (value != null) {
+                                    this.next = new SimpleImmutableEntry<>(key, value);
+                                }
+                            }
+                            return this.next != null;
+                        }
+
+                        @Override
+                        public Entry<ResourceLocation, T> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            Entry<ResourceLocation, T> next = this.next;
+                            this.next = null;
+                            return next;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return LazyDataMap.this.size();
+                }
+            };
+            this.entrySet = entrySet;
+        }
+        return entrySet;
+    }
+}
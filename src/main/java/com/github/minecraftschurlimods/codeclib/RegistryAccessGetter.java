@@ -1,6 +1,7 @@
 package com.github.minecraftschurlimods.codeclib;
 
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.server.MinecraftServer;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.fml.loading.FMLEnvironment;
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
@@ -15,4 +16,13 @@ public class RegistryAccessGetter {
             return ServerLifecycleHooks.getCurrentServer().registryAccess();
         }
     }
+
+    /**
+     * Prefers the registry access of the running server, for threads where the effective side cannot be determined (e.g. reload workers).
+     */
+    @Nullable
+    public static RegistryAccess getServerRegistryAccess() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        return server != null ? server.registryAccess() : getRegistryAccess();
+    }
 }
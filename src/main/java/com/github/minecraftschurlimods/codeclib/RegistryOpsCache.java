@@ -0,0 +1,76 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.resources.ResourceKey;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares {@link RegistryOps} per registry access instead of building new ones, and with them new registry lookup caches, for every use.<br>
+ * The registry lookups are memoized in a concurrent map, so the ops can be used from multiple threads at once.
+ * Entries are dropped together with their registry access, so a new registry access always gets new ops.
+ */
+final class RegistryOpsCache {
+    private static final Map<RegistryAccess, RegistryOpsCache> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+    private final RegistryOps<JsonElement> json;
+    private final RegistryOps<Tag> nbt;
+
+    private RegistryOpsCache(RegistryAccess registryAccess) {
+        RegistryOps.RegistryInfoLookup lookup = new ConcurrentLookup(registryAccess);
+        this.json = RegistryOps.create(JsonOps.INSTANCE, lookup);
+        this.nbt = RegistryOps.create(NbtOps.INSTANCE, lookup);
+    }
+
+    /**
+     * @return The json ops for the given registry access, or plain json ops if there is none.
+     */
+    static DynamicOps<JsonElement> json(@Nullable RegistryAccess registryAccess) {
+        return registryAccess != null ? get(registryAccess).json : JsonOps.INSTANCE;
+    }
+
+    /**
+     * @return The nbt ops for the given registry access, or plain nbt ops if there is none.
+     */
+    static DynamicOps<Tag> nbt(@Nullable RegistryAccess registryAccess) {
+        return registryAccess != null ? get(registryAccess).nbt : NbtOps.INSTANCE;
+    }
+
+    private static RegistryOpsCache get(RegistryAccess registryAccess) {
+        return CACHE.computeIfAbsent(registryAccess, RegistryOpsCache::new);
+    }
+
+    // only weakly references the registry access, as the cache entry holding this lookup is weakly keyed by it
+    private static final class ConcurrentLookup implements RegistryOps.RegistryInfoLookup {
+        private final WeakReference<RegistryAccess> registryAccess;
+        private final Map<ResourceKey<? extends Registry<?>>, Optional<? extends RegistryOps.RegistryInfo<?>>> cache = new ConcurrentHashMap<>();
+
+        private ConcurrentLookup(RegistryAccess registryAccess) {
+            this.registryAccess = new WeakReference<>(registryAccess);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E> Optional<RegistryOps.RegistryInfo<E>> lookup(ResourceKey<? extends Registry<? extends E>> key) {
+            return (Optional<RegistryOps.RegistryInfo<E>>) this.cache.computeIfAbsent(key, k -> lookupUncached(key));
+        }
+
+        private <E> Optional<RegistryOps.RegistryInfo<E>> lookupUncached(ResourceKey<? extends Registry<? extends E>> key) {
+            RegistryAccess registryAccess = this.registryAccess.get();
+            if (registryAccess == null) return Optional.empty();
+            return registryAccess.lookup(key).map(lookup -> new RegistryOps.RegistryInfo<>(lookup, lookup, lookup.registryLifecycle()));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.PreparableReloadListener;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.AddReloadListenerEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Reload listener loading all data managers that use {@link CodecDataManager#coordinatedReload()} together.<br>
+ * The data of all managers is decoded concurrently on the background executor of the reload.
+ * Afterwards the managers are validated and published on the game thread, with every manager coming after the managers it {@link CodecDataManager#dependsOn(IDataManager[]) depends on}.
+ */
+public final class ReloadCoordinator implements PreparableReloadListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReloadCoordinator.class);
+    private static final ReloadCoordinator INSTANCE = new ReloadCoordinator();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    // the cpu time counter of the coordinated reload the current thread works on
+    private static final ThreadLocal<AtomicLong> CPU_NANOS = new ThreadLocal<>();
+    private static boolean registered = false;
+    private volatile Stats lastReloadStats = Stats.EMPTY;
+
+    private ReloadCoordinator() {}
+
+    /**
+     * @return The reload coordinator.
+     */
+    public static ReloadCoordinator get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Add the reload coordinator as server data reload listener, calling this more than once has no effect.
+     */
+    static synchronized void register() {
+        if (registered) return;
+        NeoForge.EVENT_BUS.addListener((AddReloadListenerEvent event) -> event.addListener(INSTANCE));
+        registered = true;
+    }
+
+    /**
+     * @return The timings of the last coordinated reload.
+     */
+    public Stats getLastReloadStats() {
+        return this.lastReloadStats;
+    }
+
+    @Override
+    public CompletableFuture<Void> reload(PreparationBarrier barrier, ResourceManager resourceManager, ProfilerFiller preparationsProfiler, ProfilerFiller reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
+        List<CodecDataManager<?>> managers = sort(CodecDataManager.coordinatedManagers());
+        long start = System.nanoTime();
+        AtomicLong cpuNanos = new AtomicLong();
+        List<CompletableFuture<Prepared<?>>> prepared = new ArrayList<>(managers.size());
+        for (CodecDataManager<?> manager : managers) {
+            // profilers are not thread-safe, so the concurrent preparations do not report to the reload profiler
+            prepared.add(CompletableFuture.<Prepared<?>>supplyAsync(() -> timed(cpuNanos, () -> Prepared.of(manager, resourceManager)), backgroundExecutor));
+        }
+        AtomicLong prepareNanos = new AtomicLong();
+        return CompletableFuture.allOf(prepared.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    prepareNanos.set(System.nanoTime() - start);
+                    return ignored;
+                })
+                .thenCompose(barrier::wait)
+                .thenAcceptAsync(ignored -> {
+                    long publishStart = System.nanoTime(); // excludes waiting for the other reload listeners at the barrier
+                    reloadProfiler.startTick();
+                    for (CompletableFuture<Prepared<?>> future : prepared) {
+                        Prepared<?> result = future.join();
+                        timed(cpuNanos, () -> {
+                            result.publish(reloadProfiler);
+                            return null;
+                        });
+                    }
+                    reloadProfiler.endTick();
+                    Stats stats = new Stats(managers.size(), prepareNanos.get(), System.nanoTime() - publishStart, cpuNanos.get());
+                    this.lastReloadStats = stats;
+                    LOGGER.info("Reloaded {} data managers in {} ms preparing and {} ms publishing using {} ms cpu time", stats.managers(), stats.prepareNanos() / 1_000_000, stats.publishNanos() / 1_000_000, stats.cpuNanos() / 1_000_000);
+                }, gameExecutor);
+    }
+
+    @Override
+    public String getName() {
+        return "CodecLib ReloadCoordinator";
+    }
+
+    private static <R> R timed(AtomicLong cpuNanos, Supplier<R> task) {
+        long start = threadTime();
+        CPU_NANOS.set(cpuNanos);
+        try {
+            return task.get();
+        } finally {
+            CPU_NANOS.remove();
+            cpuNanos.addAndGet(threadTime() - start);
+        }
+    }
+
+    /**
+     * @return The cpu time of the current thread, or the wall time if the jvm cannot measure cpu time.
+     */
+    static long threadTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Count the given time, spent on other threads on behalf of the current thread, towards the coordinated reload the current thread works on, if any.
+     *
+     * @param nanos the time measured with {@link #threadTime()} on the other threads.
+     */
+    static void addWorkerTime(long nanos) {
+        AtomicLong cpuNanos = CPU_NANOS.get();
+        if (cpuNanos != null) {
+            cpuNanos.addAndGet(nanos);
+        }
+    }
+
+    /**
+     * Order the given data managers so that every manager comes after its dependencies, independent managers are ordered by id.<br>
+     * Cycles are logged and broken at the dependency closing them, so they never abort the reload.
+     */
+    static List<CodecDataManager<?>> sort(List<CodecDataManager<?>> managers) {
+        Map<ResourceLocation, CodecDataManager<?>> byId = new TreeMap<>();
+        for (CodecDataManager<?> manager : managers) {
+            byId.put(manager.id(), manager);
+        }
+        Set<ResourceLocation> sorted = new LinkedHashSet<>();
+        Set<ResourceLocation> visiting = new HashSet<>();
+        for (ResourceLocation id : byId.keySet()) {
+            visit(id, byId, sorted, visiting);
+        }
+        List<CodecDataManager<?>> result = new ArrayList<>(sorted.size());
+        for (ResourceLocation id : sorted) {
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+
+    private static void visit(ResourceLocation id, Map<ResourceLocation, CodecDataManager<?>> byId, Set<ResourceLocation> sorted, Set<ResourceLocation> visiting) {
+        if (sorted.contains(id)) return;
+        if (!visiting.add(id)) {
+            LOGGER.error("Cyclic dependency between data managers involving {}, ignoring the dependency closing the cycle", id);
+            return;
+        }
+        for (ResourceLocation dependency : byId.get(id).dependencies()) {
+            if (byId.containsKey(dependency)) { // managers reloading on their own are not ordered
+                visit(dependency, byId, sorted, visiting);
+            }
+        }
+        visiting.remove(id);
+        sorted.add(id);
+    }
+
+    /**
+     * Timings of a coordinated reload.
+     *
+     * @param managers     the number of reloaded data managers.
+     * @param prepareNanos the time between the start of the reload and the last data manager being loaded.
+     * @param publishNanos the time spent publishing the data managers on the game thread, excluding the wait for the other reload listeners.
+     * @param cpuNanos     the summed cpu time of all threads working on the reload, including parallel decoding and validation, or their summed wall time if the jvm cannot measure cpu time.
+     */
+    public record Stats(int managers, long prepareNanos, long publishNanos, long cpuNanos) {
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0);
+    }
+
+    private record Prepared<T>(CodecDataManager<T> manager, CodecDataManager.PreparedData<T> data) {
+        private static <T> Prepared<T> of(CodecDataManager<T> manager, ResourceManager resourceManager) {
+            return new Prepared<>(manager, manager.load(resourceManager, InactiveProfiler.INSTANCE));
+        }
+
+        private void publish(ProfilerFiller profiler) {
+            this.manager.publish(this.data, profiler);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.OnDatapackSyncEvent;
+import net.neoforged.neoforge.network.handling.PlayPayloadContext;
+import net.neoforged.neoforge.network.registration.IPayloadRegistrar;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+
+/**
+ * Sends the data of all data managers of a namespace that use {@link CodecDataManager#bundledSync(boolean)} to each player in a single payload.<br>
+ * The payload holds the encoded sync packet of every manager with its id, and is optionally deflated and split into chunks like {@link CodecDataManager#chunkedSync(int, boolean) chunked sync}.
+ * The client reads the payload in one pass and hands every part to its data manager, which decodes it in the background as usual.
+ */
+final class SyncBundle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncBundle.class);
+    private static final Map<String, SyncBundle> BUNDLES = new HashMap<>();
+    private static final int CHUNK_SIZE = 1 << 19;
+    private static final byte BUNDLE_PAYLOAD = 0;
+    private final ResourceLocation id;
+    private final ResourceLocation chunkId;
+    private final Map<ResourceLocation, CodecDataManager<?>> members = new LinkedHashMap<>();
+    private final AtomicInteger transferIds = new AtomicInteger();
+    private final ChunkedPayload.Receiver chunkReceiver = new ChunkedPayload.Receiver();
+    private boolean compress = false;
+    private boolean subscribed = false;
+    @Nullable
+    private List<CustomPacketPayload> payloads;
+
+    private SyncBundle(String namespace) {
+        this.id = new ResourceLocation(namespace, "codeclib_sync_bundle");
+        this.chunkId = new ResourceLocation(namespace, "codeclib_sync_bundle/chunk");
+    }
+
+    /**
+     * Add the given data manager to the bundle of its namespace.
+     *
+     * @param manager  the data manager.
+     * @param compress whether to deflate the bundle, the bundle is compressed if any of its data managers asks for it.
+     * @return the bundle.
+     */
+    static SyncBundle join(CodecDataManager<?> manager, boolean compress) {
+        synchronized (BUNDLES) {
+            SyncBundle bundle = BUNDLES.computeIfAbsent(manager.id().getNamespace(), SyncBundle::new);
+            synchronized (bundle) {
+                bundle.members.put(manager.id(), manager);
+                bundle.compress |= compress;
+                bundle.payloads = null;
+            }
+            return bundle;
+        }
+    }
+
+    /**
+     * Register the bundle payloads and the sync listener, calling this more than once has no effect.
+     *
+     * @param registrar the registrar of the namespace of this bundle.
+     */
+    synchronized void subscribe(IPayloadRegistrar registrar) {
+        if (this.subscribed) return;
+        registrar.play(this.id, fbb -> new Payload(this.id, CodecPacket.readRemaining(fbb)), b -> b.client((payload, context) -> receive(payload.bytes(), context)));
+        registrar.play(this.chunkId, fbb -> ChunkedPayload.Chunk.read(this.chunkId, fbb), b -> b.client(this::receiveChunk));
+        if (FMLEnvironment.dist.isClient()) {
+            ClientEvents.onLoggingOut(this.chunkReceiver::reset);
+        }
+        NeoForge.EVENT_BUS.addListener((OnDatapackSyncEvent event) -> {
+            List<CustomPacketPayload> payloads = currentPayloads();
+            if (payloads.isEmpty()) return;
+            ServerPlayer player = event.getPlayer();
+            if (player != null) {
+                for (CustomPacketPayload payload : payloads) {
+                    player.connection.send(payload);
+                }
+            } else {
+                for (CustomPacketPayload payload : payloads) {
+                    event.getPlayerList().broadcastAll(new ClientboundCustomPayloadPacket(payload));
+                }
+            }
+        });
+        this.subscribed = true;
+    }
+
+    /**
+     * Drop the encoded bundle, called whenever the data of a member changes.
+     */
+    synchronized void invalidate() {
+        this.payloads = null;
+    }
+
+    private synchronized List<CustomPacketPayload> currentPayloads() {
+        List<CustomPacketPayload> payloads = this.payloads;
+        if (payloads != null) return payloads;
+        Map<ResourceLocation, byte[]> parts = new LinkedHashMap<>();
+        for (CodecDataManager<?> manager : this.members.values()) {
+            byte[] part = manager.bundledSyncBytes();
+            if (part != null) {
+                parts.put(manager.id(), part);
+            }
+        }
+        if (parts.isEmpty()) {
+            payloads = List.of();
+        } else {
+            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+            byte[] encoded;
+            try {
+                buf.writeMap(parts, FriendlyByteBuf::writeResourceLocation, FriendlyByteBuf::writeByteArray);
+                encoded = ByteBufUtil.getBytes(buf);
+            } finally {
+                buf.release();
+            }
+            payloads = !this.compress && encoded.length <= CHUNK_SIZE
+                    ? List.of(new Payload(this.id, encoded))
+                    : ChunkedPayload.split(this.chunkId, this.transferIds.incrementAndGet(), BUNDLE_PAYLOAD, encoded, CHUNK_SIZE, this.compress);
+            LOGGER.debug("Bundled sync data of {} data managers into {} bytes in {} payloads", parts.size(), encoded.length, payloads.size());
+        }
+        this.payloads = payloads;
+        return payloads;
+    }
+
+    private void receive(byte[] bytes, PlayPayloadContext context) {
+        Map<ResourceLocation, byte[]> parts;
+        try {
+            parts = new FriendlyByteBuf(Unpooled.wrappedBuffer(bytes)).readMap(FriendlyByteBuf::readResourceLocation, FriendlyByteBuf::readByteArray);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to read sync bundle {}", this.id, e);
+            return;
+        }
+        List<Runnable> handlers = new ArrayList<>(parts.size());
+        synchronized (this) {
+            for (Map.Entry<ResourceLocation, byte[]> part : parts.entrySet()) {
+                CodecDataManager<?> manager = this.members.get(part.getKey());
+                if (manager == null) {
+                    LOGGER.warn("Received sync data for unknown data manager {} in sync bundle {}", part.getKey(), this.id);
+                    continue;
+                }
+                handlers.add(() -> manager.receiveBundled(part.getValue(), context));
+            }
+        }
+        handlers.forEach(Runnable::run);
+    }
+
+    private void receiveChunk(ChunkedPayload.Chunk chunk, PlayPayloadContext context) {
+        ChunkedPayload.Assembled assembled;
+        try {
+            assembled = this.chunkReceiver.accept(chunk);
+        } catch (DataFormatException | IllegalStateException e) {
+            LOGGER.error("Failed to receive sync bundle {}", this.id, e);
+            return;
+        }
+        if (assembled == null) return;
+        receive(assembled.payload(), context);
+    }
+
+    /**
+     * An uncompressed bundle fitting into a single payload.
+     */
+    private record Payload(ResourceLocation id, byte[] bytes) implements CustomPacketPayload {
+        @Override
+        public void write(FriendlyByteBuf buf) {
+            buf.writeBytes(this.bytes);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.minecraftschurlimods.codeclib;
 
 import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import java.util.Map;
@@ -13,5 +14,23 @@ public interface Validator<T> {
         return (m, l) -> {};
     }
 
-    class ValidationError extends Exception {}
+    class ValidationError extends Exception {
+        public ValidationError() {}
+
+        public ValidationError(String message) {
+            super(message);
+        }
+
+        public ValidationError(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * A problem found during validation.
+     *
+     * @param id      the id of the rejected entry, or {@code null} if the problem concerns the data as a whole.
+     * @param message the description of the problem.
+     */
+    record Problem(@Nullable ResourceLocation id, String message) {}
 }
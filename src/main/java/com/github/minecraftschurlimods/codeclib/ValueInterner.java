@@ -0,0 +1,117 @@
+package com.github.minecraftschurlimods.codeclib;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.mojang.serialization.Codec;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Replaces decoded values with an equal value decoded before, so equal values share a single instance.<br>
+ * Values are compared with {@link Object#equals(Object)}, so only immutable values with a structural equals should be interned.
+ * Wrap the codecs of frequently repeated values with {@link #wrap(Codec)} and pass the interner to {@link CodecDataManager#internValues(ValueInterner)}.
+ */
+public final class ValueInterner {
+    private final boolean weak;
+    private volatile Interner<Object> interner;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private int activeLoads;
+
+    private ValueInterner(boolean weak) {
+        this.weak = weak;
+        this.interner = newInterner();
+    }
+
+    /**
+     * Create an interner holding its values weakly, so values are dropped once nothing else uses them.
+     * Weak interners can be shared between data managers.
+     *
+     * @return the interner.
+     */
+    public static ValueInterner weak() {
+        return new ValueInterner(true);
+    }
+
+    /**
+     * Create an interner holding its values until the next reload of a data manager using it, which is cheaper than holding them weakly.
+     * The interner is cleared when a data manager using it starts loading or receives its full sync data while no other one does, and when the client leaves a server.
+     *
+     * @return the interner.
+     */
+    public static ValueInterner reloadScoped() {
+        return new ValueInterner(false);
+    }
+
+    /**
+     * @param value the value to intern.
+     * @return The first interned value equal to the given value, or the given value if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value) {
+        Object canonical = this.interner.intern(value);
+        this.lookups.increment();
+        if (canonical != value) {
+            this.deduplicated.increment();
+        }
+        return (T) canonical;
+    }
+
+    /**
+     * @param codec the codec to wrap.
+     * @return A codec interning all values decoded by the given codec.
+     */
+    public <T> Codec<T> wrap(Codec<T> codec) {
+        return codec.xmap(this::intern, Function.identity());
+    }
+
+    /**
+     * @return The number of values passed to this interner.
+     */
+    public long lookups() {
+        return this.lookups.sum();
+    }
+
+    /**
+     * @return The number of values replaced by an equal value interned before, each of which is one object less on the heap.
+     */
+    public long deduplicated() {
+        return this.deduplicated.sum();
+    }
+
+    /**
+     * Start a load of a data manager, which clears reload scoped interners unless another data manager using this interner is loading.
+     */
+    synchronized void beginLoad() {
+        if (this.activeLoads++ == 0) {
+            reset();
+        }
+    }
+
+    /**
+     * Finish a load started with {@link #beginLoad()}.
+     */
+    synchronized void endLoad() {
+        this.activeLoads--;
+    }
+
+    /**
+     * Clear reload scoped interners unless a data manager using this interner is loading.
+     */
+    synchronized void clear() {
+        if (this.activeLoads == 0) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        if (!this.weak) {
+            this.interner = newInterner();
+        }
+    }
+
+    private Interner<Object> newInterner() {
+        return this.weak ? Interners.newWeakInterner() : Interners.newStrongInterner();
+    }
+}